@@ -0,0 +1,199 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits and merges the speed adjustments ({@code /speed increase}/{@code decrease}) of each player.
+ * <p>
+ * Every player has a token bucket; an adjustment costs one token and is rejected once the bucket is empty.
+ * Accepted deltas for the same world are summed over a short merge window and applied as one change, so a
+ * macro firing many times a second causes one apply, one save and one notification per window. Deltas are
+ * summed in hundredths, so the merged result only differs from applying them one by one when an
+ * intermediate step would have been clamped at a bound.
+ */
+public class AdjustmentThrottle {
+    private final Adjuster adjuster;
+    private final ScheduledExecutorService executor;
+    private final Map<UUID, PlayerBucket> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong mergedAdjustments = new AtomicLong();
+    private final AtomicLong rejectedAdjustments = new AtomicLong();
+
+    /**
+     * @param adjuster Applies a merged delta to a world, e.g. via {@link CustomSpeedPlugin#adjustSpeed(World, float, UUID, ChangeSource)}
+     */
+    public AdjustmentThrottle(Adjuster adjuster) {
+        this.adjuster = adjuster;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes a token from the player's bucket.
+     *
+     * @param player The player's UUID
+     * @return 0 if the adjustment may proceed, otherwise the milliseconds until the next token is available
+     */
+    public long tryAcquire(UUID player) {
+        long waitMs = getBucket(player).tryAcquire(System.nanoTime());
+        if (waitMs > 0) {
+            rejectedAdjustments.incrementAndGet();
+        }
+        return waitMs;
+    }
+
+    /**
+     * Queues a delta for the player's merge window. The first adjustment of a window opens it and receives the
+     * future of the merged change; adjustments folded into an open window return null.
+     *
+     * @param player The player's UUID
+     * @param world The world to adjust
+     * @param delta The amount to adjust the speed by
+     * @return Future completed with the speed after the merged change, or null if merged into a pending change
+     */
+    public CompletableFuture<Float> submit(UUID player, World world, float delta) {
+        PlayerBucket bucket = getBucket(player);
+        int deltaHundredths = SpeedUnits.toHundredths(delta);
+
+        PendingAdjustment flushNow = null;
+        CompletableFuture<Float> result;
+        synchronized (bucket) {
+            PendingAdjustment pending = bucket.pending;
+            if (pending != null && pending.world == world) {
+                pending.deltaHundredths += deltaHundredths;
+                mergedAdjustments.incrementAndGet();
+                return null;
+            }
+
+            // A pending change for another world is applied right away rather than merged
+            flushNow = pending;
+            PendingAdjustment opened = new PendingAdjustment(player, world, deltaHundredths);
+            bucket.pending = opened;
+            result = opened.result;
+            executor.schedule(() -> flush(bucket, opened),
+                SpeedConstants.ADJUST_MERGE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+
+        if (flushNow != null) {
+            apply(flushNow);
+        }
+        return result;
+    }
+
+    /**
+     * Applies every pending change immediately and stops the background thread.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (PlayerBucket bucket : buckets.values()) {
+            PendingAdjustment pending;
+            synchronized (bucket) {
+                pending = bucket.pending;
+                bucket.pending = null;
+            }
+            if (pending != null) {
+                apply(pending);
+            }
+        }
+    }
+
+    /**
+     * @return Number of adjustments folded into a pending change
+     */
+    public long getMergedAdjustments() {
+        return mergedAdjustments.get();
+    }
+
+    /**
+     * @return Number of adjustments rejected because the player's bucket was empty
+     */
+    public long getRejectedAdjustments() {
+        return rejectedAdjustments.get();
+    }
+
+    private PlayerBucket getBucket(UUID player) {
+        PlayerBucket bucket = buckets.get(player);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(player, uuid -> new PlayerBucket(System.nanoTime()));
+        }
+        return bucket;
+    }
+
+    private void flush(PlayerBucket bucket, PendingAdjustment expected) {
+        synchronized (bucket) {
+            // Already flushed because the player switched worlds
+            if (bucket.pending != expected) {
+                return;
+            }
+            bucket.pending = null;
+        }
+        apply(expected);
+    }
+
+    private void apply(PendingAdjustment pending) {
+        adjuster.adjust(pending.player, pending.world, SpeedUnits.toSpeed(pending.deltaHundredths)).whenComplete((speed, error) -> {
+            if (error != null) {
+                pending.result.completeExceptionally(error);
+            } else {
+                pending.result.complete(speed);
+            }
+        });
+    }
+
+    /**
+     * Token bucket of one player plus their open merge window. Guarded by its own monitor.
+     */
+    private static final class PlayerBucket {
+        private double tokens = SpeedConstants.ADJUST_BURST;
+        private long lastRefillNanos;
+        private PendingAdjustment pending;
+
+        private PlayerBucket(long nowNanos) {
+            this.lastRefillNanos = nowNanos;
+        }
+
+        private synchronized long tryAcquire(long nowNanos) {
+            double refill = (nowNanos - lastRefillNanos) / 1_000_000_000.0 * SpeedConstants.ADJUST_RATE_PER_SECOND;
+            tokens = Math.min(SpeedConstants.ADJUST_BURST, tokens + refill);
+            lastRefillNanos = nowNanos;
+
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return 0L;
+            }
+            return (long) Math.ceil((1.0 - tokens) * 1000.0 / SpeedConstants.ADJUST_RATE_PER_SECOND);
+        }
+    }
+
+    private static final class PendingAdjustment {
+        private final UUID player;
+        private final World world;
+        private final CompletableFuture<Float> result = new CompletableFuture<>();
+        private int deltaHundredths;
+
+        private PendingAdjustment(UUID player, World world, int deltaHundredths) {
+            this.player = player;
+            this.world = world;
+            this.deltaHundredths = deltaHundredths;
+        }
+    }
+
+    /**
+     * Applies a merged adjustment on behalf of a player.
+     */
+    @FunctionalInterface
+    public interface Adjuster {
+        CompletableFuture<Float> adjust(UUID player, World world, float delta);
+    }
+}
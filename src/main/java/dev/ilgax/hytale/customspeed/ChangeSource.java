@@ -0,0 +1,42 @@
+package dev.ilgax.hytale.customspeed;
+
+/**
+ * What triggered a speed change. The id is stored in the journal, so existing ids must never change.
+ */
+public enum ChangeSource {
+    /** A plugin calling the public API without naming a source. */
+    API(0),
+    /** {@code /speed <multiplier>}, {@code reset}, {@code increase} or {@code decrease}. */
+    COMMAND(1),
+    /** {@code /speed toggle}. */
+    TOGGLE(2),
+    /** A scheduled speed profile. */
+    SCHEDULE(3),
+    /** A change published by another server process sharing the sync file. */
+    SYNC(4),
+    /** An edit of the config file picked up while the server runs. */
+    RELOAD(5);
+
+    private final int id;
+
+    ChangeSource(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @param id Stored source id
+     * @return The matching source, or {@link #API} if the id is unknown
+     */
+    public static ChangeSource fromId(int id) {
+        for (ChangeSource source : values()) {
+            if (source.id == id) {
+                return source;
+            }
+        }
+        return API;
+    }
+}
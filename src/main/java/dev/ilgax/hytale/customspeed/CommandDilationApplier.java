@@ -0,0 +1,28 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.console.ConsoleSender;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fallback that dispatches the vanilla {@code time dilation} console command.
+ * The console command is not world-scoped, so this applier cannot honour per-world speeds.
+ */
+public class CommandDilationApplier implements DilationApplier {
+    @Override
+    public CompletableFuture<Void> apply(World world, float multiplier) {
+        String command = "time dilation " + multiplier;
+        return HytaleServer.get().getCommandManager().handleCommand(ConsoleSender.INSTANCE, command);
+    }
+
+    @Override
+    public String getName() {
+        return "command";
+    }
+
+    @Override
+    public boolean isWorldScoped() {
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pushes dilation values that a newer change can supersede while they are still queued for the world.
+ */
+@FunctionalInterface
+public interface ConditionalApplier {
+    /**
+     * @param world The world to apply the value to
+     * @param multiplier The dilation to apply
+     * @param current Checked on the world thread; the value is dropped once it returns false
+     * @return Future completed once the value was applied or dropped
+     */
+    CompletableFuture<Void> apply(World world, float multiplier, BooleanSupplier current);
+}
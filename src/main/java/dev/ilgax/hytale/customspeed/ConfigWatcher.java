@@ -0,0 +1,166 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Watches the plugin config file for edits made outside the plugin.
+ * <p>
+ * Editors often save a file in several steps (truncate, write, rename), so events only arm a timer and the reload
+ * runs once the file has been quiet for {@link SpeedConstants#CONFIG_RELOAD_DEBOUNCE_MS}. The checksum of the content
+ * the plugin wrote itself or last reloaded is remembered; a file with that content is not reloaded, so the plugin's
+ * own saves never trigger a reload loop.
+ */
+public class ConfigWatcher {
+    private final Path file;
+    private final Runnable onChange;
+    private final Consumer<Exception> onError;
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+
+    private WatchService watchService;
+
+    // Guarded by lock
+    private long knownChecksum = -1L;
+    private ScheduledFuture<?> pendingReload;
+
+    /**
+     * @param file The watched file
+     * @param onChange Called on a background thread once the file's content changed
+     * @param onError Receives errors of the watch thread
+     */
+    public ConfigWatcher(Path file, Runnable onChange, Consumer<Exception> onError) {
+        this.file = file;
+        this.onChange = onChange;
+        this.onError = onError;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-ConfigReload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts watching the file's directory. The current content counts as known.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public void start() throws IOException {
+        recordOwnWrite();
+        this.watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watchThread = new Thread(this::watch, "CustomSpeed-ConfigWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Remembers the file's current content as written by the plugin, so the change events of that write are
+     * ignored. Call after every save.
+     */
+    public void recordOwnWrite() {
+        try {
+            long checksum = checksum();
+            synchronized (lock) {
+                knownChecksum = checksum;
+            }
+        } catch (NoSuchFileException e) {
+            // Not written yet; its first content is reloaded
+        } catch (IOException e) {
+            onError.accept(e);
+        }
+    }
+
+    public void shutdown() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void watch() {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scheduleCheck();
+                    }
+                }
+                if (!key.reset()) {
+                    onError.accept(new IOException("Config directory is no longer watchable: " + file.getParent()));
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shut down
+        }
+    }
+
+    /**
+     * (Re)starts the quiet period after which the file is checked.
+     */
+    private void scheduleCheck() {
+        synchronized (lock) {
+            if (pendingReload != null) {
+                pendingReload.cancel(false);
+            }
+            pendingReload = executor.schedule(this::check, SpeedConstants.CONFIG_RELOAD_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void check() {
+        long checksum;
+        try {
+            checksum = checksum();
+        } catch (NoSuchFileException e) {
+            // Deleted or mid-rename; the next event brings it back
+            return;
+        } catch (IOException e) {
+            onError.accept(e);
+            return;
+        }
+
+        synchronized (lock) {
+            if (checksum == knownChecksum) {
+                return;
+            }
+            knownChecksum = checksum;
+        }
+
+        try {
+            onChange.run();
+        } catch (RuntimeException e) {
+            // Keep watching; a later edit may fix the file
+            onError.accept(e);
+        }
+    }
+
+    private long checksum() throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,114 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence for the plugin config.
+ * <p>
+ * Changes only mark the config dirty; a single background thread performs the actual save once the
+ * flush window elapses or enough changes have piled up, so a burst of speed changes costs one write.
+ */
+public class ConfigWriter {
+    private final Runnable saveAction;
+    private final long flushDelayMs;
+    private final int dirtyThreshold;
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+
+    private int pendingChanges;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean stopped;
+
+    public ConfigWriter(Runnable saveAction, long flushDelayMs, int dirtyThreshold) {
+        this.saveAction = saveAction;
+        this.flushDelayMs = flushDelayMs;
+        this.dirtyThreshold = dirtyThreshold;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-ConfigWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a pending change and schedules a flush if none is scheduled yet.
+     * Never blocks on disk. After {@link #shutdown()} the change is only counted; it is written by an explicit
+     * {@link #flush()}.
+     */
+    public void markDirty() {
+        synchronized (lock) {
+            pendingChanges++;
+
+            if (stopped) {
+                // The executor rejects new tasks once shut down
+                return;
+            }
+            if (pendingChanges >= dirtyThreshold) {
+                // Too many changes buffered, flush right away instead of waiting for the window
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                }
+                scheduledFlush = executor.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the config if there are pending changes. Safe to call from any thread.
+     */
+    public void flush() {
+        int changes;
+        synchronized (lock) {
+            changes = pendingChanges;
+            pendingChanges = 0;
+            scheduledFlush = null;
+        }
+
+        if (changes == 0) {
+            return;
+        }
+
+        saveAction.run();
+        writes.incrementAndGet();
+        coalescedWrites.addAndGet(changes - 1);
+    }
+
+    /**
+     * Stops the background writer and flushes any pending changes on the calling thread.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            stopped = true;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SpeedConstants.CONFIG_WRITER_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return Number of config writes actually performed
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * @return Number of writes saved by coalescing several changes into one
+     */
+    public long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+}
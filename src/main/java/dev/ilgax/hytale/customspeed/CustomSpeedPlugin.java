@@ -1,192 +1,1730 @@
 package dev.ilgax.hytale.customspeed;
 
-import com.hypixel.hytale.server.core.HytaleServer;
-import com.hypixel.hytale.server.core.console.ConsoleSender;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.events.RemoveWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.events.StartWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.util.Config;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
+import java.util.zip.CRC32;
 
 public class CustomSpeedPlugin extends JavaPlugin {
-    private final Config<SpeedConfig> config;
+    private static final BooleanSupplier ALWAYS_CURRENT = () -> true;
+
+    private Config<SpeedConfig> config;
     private SpeedConfig speedConfig;
     private SpeedValidator validator;
+    private ConfigWriter configWriter;
+    private volatile ConfigWatcher configWatcher;
+    // Checksum of config.json as last loaded or written by the plugin, -1 if there was none; guarded by configFileLock
+    private long knownConfigChecksum = -1L;
+    private final Object configFileLock = new Object();
+    private SpeedStateFile stateFile;
+    private volatile DilationApplier dilationApplier = new DirectDilationApplier();
+    private final DilationApplier fallbackApplier = new CommandDilationApplier();
+    private SpeedRampScheduler rampScheduler;
+    private TickMonitor tickMonitor;
+    private LoadGovernor governor;
+    private DilationProbe probe;
+    private TickStepper stepper;
+    private TimeSkipper skipper;
+    private NotificationService notifications;
+    private AdjustmentThrottle adjustmentThrottle;
+    private ProfileScheduler profileScheduler;
+    private volatile SpeedJournal journal;
+    private final ZoneIndex zoneIndex = new ZoneIndex();
+    // Worlds whose dilation is driven by a running job (e.g. a probe) and the job's description; speed changes are
+    // refused and the governor leaves them alone until the job releases them
+    private final Map<String, String> heldWorlds = new ConcurrentHashMap<>();
+    private SpeedSyncFile syncFile;
+    private SpeedSyncSystem syncSystem;
+    private final SpeedMetrics metrics = new SpeedMetrics();
+    private final DefaultSpeedService speedService = new DefaultSpeedService(
+        e -> this.getLogger().at(Level.WARNING).withCause(e).log("Speed listener failed"));
+    private MetricsFileExporter metricsExporter;
 
     public CustomSpeedPlugin(JavaPluginInit init) {
         super(init);
-        // Register config in constructor (State is NONE)
-        this.config = this.withConfig("config", SpeedConfig.CODEC);
     }
 
     @Override
     protected void setup() {
-        // Retrieve the loaded config (available in setup)
-        this.speedConfig = this.config.get();
+        boolean firstStart = !Files.exists(this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME));
+        this.speedConfig = openConfig();
+        this.configWriter = new ConfigWriter(this::saveConfig,
+            SpeedConstants.CONFIG_FLUSH_DELAY_MS, SpeedConstants.CONFIG_FLUSH_DIRTY_THRESHOLD);
+        this.notifications = new NotificationService(this.speedConfig, this.metrics);
+        // Time at speed follows the dilation actually applied, not the requested speed
+        speedService.addListener((worldName, previousSpeed, speed) ->
+            metrics.recordSpeedLevel(worldName, SpeedUnits.toHundredths(speed)));
+        if (firstStart) {
+            requestSave();
+        }
 
         // Validate and fix config if needed
-        validateAndFixConfig();
+        if (validateAndFixConfig(this.speedConfig)) {
+            this.getLogger().at(Level.INFO).log("Config was corrected, saving changes");
+            requestSave();
+        }
 
         this.validator = new SpeedValidator(this.speedConfig);
 
+        // Live speeds come from the state file; the config only seeds them
+        long persistedAt = restoreState();
+
+        // The journal is written on every change, so it can be newer than the state file
+        this.journal = openJournal();
+        recoverFromJournal(persistedAt);
+
+        this.rampScheduler = new SpeedRampScheduler(this::applySpeed);
+        this.tickMonitor = new TickMonitor();
+        this.governor = new LoadGovernor(this.speedConfig, this.tickMonitor, this::applySpeed,
+            worldName -> rampScheduler.isRamping(worldName) || heldWorlds.containsKey(worldName));
+        this.probe = new DilationProbe(this.tickMonitor, (world, speed, current) -> applyDilation(world, speed, speed, current));
+        this.skipper = new TimeSkipper(this.speedConfig, this.tickMonitor, this.speedService, this::applySpeed,
+            this.getDataDirectory().resolve(SpeedConstants.SKIP_FILE_NAME),
+            e -> this.getLogger().at(Level.WARNING).withCause(e).log("Failed to persist running time skips"));
+        skipper.loadPending();
+        this.stepper = new TickStepper(world -> speedService.publish(world.getName(), SpeedConstants.FREEZE_DILATION));
+        this.adjustmentThrottle = new AdjustmentThrottle(
+            (player, world, delta) -> adjustSpeed(world, delta, player, ChangeSource.COMMAND));
+        this.profileScheduler = new ProfileScheduler(this.speedConfig, this::applyProfile, (profile, error) ->
+            this.getLogger().at(Level.WARNING).log("Speed profile '%s' is not scheduled: %s", profile, error.getMessage()));
+
+        // Measure tick times of every world for the load governor
+        this.getEntityStoreRegistry().registerSystem(this.tickMonitor.getTickStart());
+        this.getEntityStoreRegistry().registerSystem(this.tickMonitor);
+        this.getEntityStoreRegistry().registerSystem(this.stepper.getTickStart());
+        this.getEntityStoreRegistry().registerSystem(this.stepper);
+
+        // Per-entity speed on top of the world's dilation
+        LocalSpeedComponent.setComponentType(
+            this.getEntityStoreRegistry().registerComponent(LocalSpeedComponent.class, LocalSpeedComponent::new));
+        this.getEntityStoreRegistry().registerSystem(new LocalSpeedSystem());
+
+        // Speed zones feed the same per-entity component
+        validateZones();
+        this.getEntityStoreRegistry().registerSystem(new ZoneSystem(this.zoneIndex));
+
+        if (speedConfig.isSyncEnabled()) {
+            openSync();
+        }
+
         // Register commands
         this.getCommandRegistry().registerCommand(new SpeedCommand(this));
+
+        // Worlds loaded after startup (e.g. minigame instances) get their saved speed as they start
+        this.getEventRegistry().registerGlobal(StartWorldEvent.class, event -> {
+            applySavedSpeed(event.getWorld());
+            resumePendingSkip(event.getWorld());
+        });
+        // Drop per-world bookkeeping so removed instances are not kept alive
+        this.getEventRegistry().registerGlobal(RemoveWorldEvent.class, event -> {
+            metrics.removeWorld(event.getWorld().getName());
+            notifications.removeWorld(event.getWorld().getName());
+        });
     }
 
     @Override
     protected void start() {
-        this.getLogger().at(Level.INFO).log("CustomSpeed v%s enabled. Initial speed: %f",
-            PluginVersion.getVersion(), speedConfig.getCurrentSpeed());
+        this.getLogger().at(Level.INFO).log("CustomSpeed v%s enabled. Default speed: %f, %d world override(s)",
+            PluginVersion.getVersion(), speedConfig.getCurrentSpeed(), speedConfig.getWorldStates().size());
+
+        // Apply saved speed to every loaded world
+        for (World world : Universe.get().getWorlds().values()) {
+            applySavedSpeed(world);
+            resumePendingSkip(world);
+        }
+
+        governor.start();
+        profileScheduler.reload();
+
+        if (syncFile != null) {
+            joinSync();
+        }
+
+        watchConfig();
+
+        if (speedConfig.isExportMetrics()) {
+            this.metricsExporter = new MetricsFileExporter(
+                this.getDataDirectory().resolve(SpeedConstants.METRICS_FILE_NAME), this::dumpMetrics,
+                e -> this.getLogger().at(Level.WARNING).withCause(e).log("Failed to export metrics"));
+            metricsExporter.start();
+        }
+    }
+
+    @Override
+    protected void shutdown() {
+        if (metricsExporter != null) {
+            metricsExporter.shutdown();
+        }
+        if (configWatcher != null) {
+            configWatcher.shutdown();
+        }
+        probe.shutdown();
+        skipper.shutdown();
+        // A frozen world would otherwise stay frozen until the server restarts
+        for (World world : Universe.get().getWorlds().values()) {
+            if (stepper.isFrozen(world.getName())) {
+                resumeWorld(world);
+            }
+        }
+        governor.shutdown();
+        profileScheduler.shutdown();
+        adjustmentThrottle.shutdown();
+        rampScheduler.shutdown();
+        notifications.shutdown();
+
+        // Always persist pending changes before the plugin goes away
+        configWriter.shutdown();
+        if (stateFile != null) {
+            stateFile.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (syncFile != null) {
+            syncSystem.shutdown();
+            syncFile.close();
+        }
+        this.getLogger().at(Level.INFO).log("Config writer: %d writes, %d coalesced",
+            configWriter.getWrites(), configWriter.getCoalescedWrites());
+    }
+
+    /**
+     * Sets a world's game speed using the configured default ramp.
+     *
+     * @param world The world to change
+     * @param multiplier The new speed multiplier
+     * @return Future completed with the applied speed, or exceptionally if the change was rejected or failed
+     * @see #setSpeedMultiplier(World, float, long)
+     */
+    public CompletableFuture<Float> setSpeedMultiplier(World world, float multiplier) {
+        return setSpeedMultiplier(world, multiplier, getDefaultRampMs());
+    }
 
-        // Apply saved speed
-        applySpeed(speedConfig.getCurrentSpeed());
+    /**
+     * Sets a world's game speed through the change pipeline: validate, apply (ramped), await the server, persist,
+     * notify. Returns immediately; the returned future completes once the target speed has been reached.
+     *
+     * @param world The world to change
+     * @param multiplier The new speed multiplier
+     * @param rampMs Time to ramp from the current to the new speed in milliseconds (0 = instant)
+     * @return Future completed with the applied speed, or exceptionally if the change was rejected or failed
+     * @see #setSpeedMultiplier(World, float, long, UUID, ChangeSource)
+     */
+    public CompletableFuture<Float> setSpeedMultiplier(World world, float multiplier, long rampMs) {
+        return setSpeedMultiplier(world, multiplier, rampMs, null, ChangeSource.API);
     }
 
-    public boolean setSpeedMultiplier(float multiplier) {
+    /**
+     * Sets a world's game speed on behalf of a player or subsystem, which is recorded in the journal.
+     *
+     * @param world The world to change
+     * @param multiplier The new speed multiplier
+     * @param rampMs Time to ramp from the current to the new speed in milliseconds (0 = instant)
+     * @param actor The player making the change, or null for the server
+     * @param source What triggered the change
+     * @return Future completed with the applied speed, or exceptionally if the change was rejected or failed
+     */
+    public CompletableFuture<Float> setSpeedMultiplier(World world, float multiplier, long rampMs, UUID actor, ChangeSource source) {
         // Validate speed
         if (!validator.isValid(multiplier)) {
             this.getLogger().at(Level.WARNING).log("Attempted to set invalid speed: %f", multiplier);
-            return false; // Invalid
+            return CompletableFuture.failedFuture(new IllegalArgumentException(validator.getValidationError(multiplier)));
         }
 
-        speedConfig.setCurrentSpeed(multiplier);
+        int target = SpeedUnits.toHundredths(multiplier);
+        return changeSpeed(world, state -> {
+            // Update toggle target if not normal speed
+            int toggleTarget = target == SpeedUnits.NORMAL_HUNDREDTHS ? state.getToggleTargetHundredths() : target;
+            return state.withSpeeds(target, toggleTarget);
+        }, "set to", rampMs, actor, source);
+    }
+
+    /**
+     * Sets the game speed of every loaded world. The worlds are changed in parallel, each on its own thread.
+     *
+     * @param multiplier The new speed multiplier
+     * @param rampMs Time to ramp from the current to the new speed in milliseconds (0 = instant)
+     * @return Future completed once every world has applied the speed, or exceptionally if any world failed
+     */
+    public CompletableFuture<Void> setSpeedMultiplierForAll(float multiplier, long rampMs) {
+        return setSpeedMultiplierForAll(multiplier, rampMs, null, ChangeSource.API);
+    }
+
+    /**
+     * Sets the game speed of every loaded world on behalf of a player or subsystem.
+     *
+     * @param multiplier The new speed multiplier
+     * @param rampMs Time to ramp from the current to the new speed in milliseconds (0 = instant)
+     * @param actor The player making the change, or null for the server
+     * @param source What triggered the change
+     * @return Future completed once every world has applied the speed, or exceptionally if any world failed
+     */
+    public CompletableFuture<Void> setSpeedMultiplierForAll(float multiplier, long rampMs, UUID actor, ChangeSource source) {
+        CompletableFuture<?>[] changes = Universe.get().getWorlds().values().stream()
+            .map(world -> setSpeedMultiplier(world, multiplier, rampMs, actor, source))
+            .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(changes);
+    }
+
+    /**
+     * Adjusts a world's speed by a delta, clamped to the configured bounds. The delta is applied atomically to
+     * whatever speed is current, so concurrent adjustments are never lost.
+     *
+     * @param world The world to change
+     * @param delta The amount to adjust the speed by (can be positive or negative)
+     * @return Future completed with the new speed, or exceptionally with an {@link IllegalStateException}
+     *         if the speed adjustment fails
+     */
+    public CompletableFuture<Float> adjustSpeed(World world, float delta) {
+        return adjustSpeed(world, delta, null, ChangeSource.API);
+    }
+
+    /**
+     * Adjusts a world's speed by a delta on behalf of a player or subsystem.
+     *
+     * @param world The world to change
+     * @param delta The amount to adjust the speed by (can be positive or negative)
+     * @param actor The player making the change, or null for the server
+     * @param source What triggered the change
+     * @return Future completed with the new speed, or exceptionally with an {@link IllegalStateException}
+     *         if the speed adjustment fails
+     */
+    public CompletableFuture<Float> adjustSpeed(World world, float delta, UUID actor, ChangeSource source) {
+        int deltaHundredths = SpeedUnits.toHundredths(delta);
+        return changeSpeed(world, state -> {
+            int target = validator.clamp(state, state.getCurrentHundredths() + deltaHundredths);
+            int toggleTarget = target == SpeedUnits.NORMAL_HUNDREDTHS ? state.getToggleTargetHundredths() : target;
+            return state.withSpeeds(target, toggleTarget);
+        }, "set to", getDefaultRampMs(), actor, source).exceptionallyCompose(error -> {
+            this.getLogger().at(Level.SEVERE).log("Failed to adjust speed by %f", delta);
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Failed to adjust speed by " + delta, unwrap(error)));
+        });
+    }
+
+    /**
+     * Switches a world between normal speed and its toggle target.
+     *
+     * @param world The world to toggle
+     * @return Future completed with the speed toggled to
+     */
+    public CompletableFuture<Float> toggleSpeed(World world) {
+        return toggleSpeed(world, null);
+    }
+
+    /**
+     * Switches a world between normal speed and its toggle target on behalf of a player.
+     *
+     * @param world The world to toggle
+     * @param actor The player toggling, or null for the server
+     * @return Future completed with the speed toggled to
+     */
+    public CompletableFuture<Float> toggleSpeed(World world, UUID actor) {
+        return changeSpeed(world, state -> {
+            // If at normal speed, switch to toggle target; otherwise, return to normal
+            if (state.getCurrentHundredths() != SpeedUnits.NORMAL_HUNDREDTHS) {
+                return state.withCurrent(SpeedUnits.NORMAL_HUNDREDTHS);
+            }
+
+            int toggleTarget = state.getToggleTargetHundredths();
 
-        // Update toggle target if not normal speed
-        if (!validator.areSpeedsEqual(multiplier, SpeedConstants.NORMAL_SPEED)) {
-            speedConfig.setToggleTargetSpeed(multiplier);
+            // Edge case: If toggle target is also normal speed (first time toggle), use default slow-mo
+            if (toggleTarget == SpeedUnits.NORMAL_HUNDREDTHS) {
+                toggleTarget = SpeedUnits.DEFAULT_TOGGLE_HUNDREDTHS;
+            }
+            return state.withSpeeds(toggleTarget, toggleTarget);
+        }, "toggled to", getDefaultRampMs(), actor, ChangeSource.TOGGLE);
+    }
+
+    /**
+     * Sets the speed of a single entity, e.g. a player, on top of its world's speed. Must be called on the
+     * entity's world thread; the change takes effect on the next tick.
+     *
+     * @param store The entity store of the entity's world
+     * @param ref The entity
+     * @param multiplier The entity's speed multiplier (1.0 = same as the world)
+     * @throws IllegalArgumentException if the multiplier is outside the configured bounds
+     */
+    public void setLocalSpeed(Store<EntityStore> store, Ref<EntityStore> ref, float multiplier) {
+        if (!validator.isValid(multiplier)) {
+            throw new IllegalArgumentException(validator.getValidationError(multiplier));
         }
 
-        saveConfig();
+        int speed = SpeedUnits.toHundredths(multiplier);
+        LocalSpeedComponent localSpeed = store.getComponent(ref, LocalSpeedComponent.getComponentType());
+        if (localSpeed != null) {
+            localSpeed.setSpeedHundredths(speed);
+        } else if (speed != SpeedUnits.NORMAL_HUNDREDTHS) {
+            store.putComponent(ref, LocalSpeedComponent.getComponentType(), new LocalSpeedComponent(speed));
+        }
+    }
 
-        if (!applySpeed(multiplier)) {
-            // Rollback config change if apply failed
-            this.getLogger().at(Level.WARNING).log("Failed to apply speed, rolling back config");
-            return false;
+    /**
+     * Adds a speed zone and persists it.
+     *
+     * @param zone The zone; its name must not be taken yet
+     * @throws IllegalArgumentException if the zone is invalid or the name is taken
+     */
+    public synchronized void addZone(SpeedZone zone) {
+        String error = validator.getZoneValidationError(zone);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (findZone(zone.getName()) != null) {
+            throw new IllegalArgumentException("A zone named '" + zone.getName() + "' already exists!");
         }
 
-        NotificationService.notifySpeedChange(multiplier, "set to");
-        return true;
+        SpeedZone[] zones = speedConfig.getZones();
+        SpeedZone[] updated = Arrays.copyOf(zones, zones.length + 1);
+        updated[zones.length] = zone;
+        speedConfig.setZones(updated);
+        zoneIndex.rebuild(updated);
+        requestSave();
     }
 
     /**
-     * Adjusts the speed by a delta and returns the new clamped speed.
+     * Removes a speed zone and persists the change.
      *
-     * @param delta The amount to adjust the speed by (can be positive or negative)
-     * @return The new speed value, or the current speed if adjustment failed
-     * @throws IllegalStateException if the speed adjustment fails
+     * @param name The zone name (case-insensitive)
+     * @return The removed zone, or null if there is none with that name
      */
-    public float adjustSpeed(float delta) {
-        float current = speedConfig.getCurrentSpeed();
-        float target = validator.clamp(current + delta);
+    public synchronized SpeedZone removeZone(String name) {
+        SpeedZone zone = findZone(name);
+        if (zone == null) {
+            return null;
+        }
+
+        SpeedZone[] updated = Arrays.stream(speedConfig.getZones()).filter(existing -> existing != zone).toArray(SpeedZone[]::new);
+        speedConfig.setZones(updated);
+        zoneIndex.rebuild(updated);
+        requestSave();
+        return zone;
+    }
 
-        // Round to avoid floating point precision issues
-        target = validator.roundSpeed(target);
+    /**
+     * Measures the highest speed the world sustains within the tick budget by stepping through the configured probe
+     * ladder. The world is held while the probe runs: speed changes are refused and the governor does not intervene.
+     * Afterwards the world's current speed is re-applied.
+     *
+     * @param world The world to probe
+     * @param progress Receives every measured step, on the probe thread
+     * @return Future completed with the report, or exceptionally if the world is busy or a step could not be applied
+     */
+    public CompletableFuture<DilationProbe.Report> probeSpeed(World world, Consumer<DilationProbe.Step> progress) {
+        String worldName = world.getName();
+        if (!holdWorld(worldName, "a speed probe")) {
+            return CompletableFuture.failedFuture(new IllegalStateException(getBusyMessage(worldName)));
+        }
+        // A ramp in flight counts as done: its target is the speed restored afterwards
+        rampScheduler.cancel(worldName);
 
-        if (!setSpeedMultiplier(target)) {
-            this.getLogger().at(Level.SEVERE).log("Failed to adjust speed by %f from %f to %f",
-                delta, current, target);
-            throw new IllegalStateException("Failed to adjust speed from " + current + " to " + target);
+        Float[] configured = speedConfig.getProbeLadder();
+        float[] ladder = new float[configured.length];
+        for (int i = 0; i < configured.length; i++) {
+            ladder[i] = configured[i];
         }
+        this.getLogger().at(Level.INFO).log("Probing world '%s' through %d speed(s)", worldName, ladder.length);
+
+        CompletableFuture<DilationProbe.Report> probing = probe.start(world, ladder,
+            (long) (speedConfig.getProbeWarmupSeconds() * 1000.0f), (long) (speedConfig.getProbeMeasureSeconds() * 1000.0f),
+            speedConfig.getTickBudgetMs(), progress);
+        return probing.handle((report, error) -> {
+            releaseWorld(worldName);
+            float restored = speedConfig.getWorldState(worldName).getCurrentSpeed();
+            applySpeed(world, restored).exceptionally(restoreError -> {
+                this.getLogger().at(Level.SEVERE).withCause(unwrap(restoreError)).log(
+                    "Failed to restore speed %f of world '%s' after the probe", restored, worldName);
+                notifications.notifyError("Failed to apply game speed! Check server logs.");
+                return null;
+            });
 
-        return target;
+            if (error != null) {
+                throw new CompletionException(unwrap(error));
+            }
+            this.getLogger().at(Level.INFO).log("Probe of world '%s' finished: sustainable up to %fx (%d step(s)%s)",
+                worldName, report.getCeiling(), report.getSteps().size(), report.isCancelled() ? ", cancelled" : "");
+            return report;
+        });
     }
-    
-    public void toggleSpeed() {
-        float current = speedConfig.getCurrentSpeed();
-        float target;
 
-        // If at normal speed, switch to toggle target; otherwise, return to normal
-        if (validator.areSpeedsEqual(current, SpeedConstants.NORMAL_SPEED)) {
-            target = speedConfig.getToggleTargetSpeed();
+    /**
+     * Stops a running probe; the world's speed is restored once it stopped.
+     *
+     * @param world The world
+     * @return true if a probe was running
+     */
+    public boolean cancelProbe(World world) {
+        return probe.cancel(world.getName());
+    }
 
-            // Edge case: If toggle target is also normal speed (first time toggle), use default slow-mo
-            if (validator.areSpeedsEqual(target, SpeedConstants.NORMAL_SPEED)) {
-                target = SpeedConstants.DEFAULT_TOGGLE_SPEED;
-                speedConfig.setToggleTargetSpeed(target);
+    /**
+     * Makes a measured ceiling the configured maximum speed and persists it. Worlds running faster are slowed down
+     * to it.
+     *
+     * @param ceiling The highest sustained speed of a probe
+     * @throws IllegalArgumentException if the ceiling is not above the minimum speed or above the accepted limit
+     */
+    public synchronized void applyProbeCeiling(float ceiling) {
+        if (ceiling <= speedConfig.getMinSpeed() || ceiling > SpeedConstants.MAX_SPEED_LIMIT) {
+            throw new IllegalArgumentException(String.format("A ceiling of %.2fx cannot be used as the maximum speed!", ceiling));
+        }
+
+        speedConfig.setMaxSpeed(ceiling);
+        requestSave();
+        this.getLogger().at(Level.INFO).log("MaxSpeed set to the measured ceiling %f", ceiling);
+
+        int max = SpeedUnits.toHundredths(ceiling);
+        UnaryOperator<SpeedState> clamp = state -> state.withSpeeds(
+            Math.min(state.getCurrentHundredths(), max), Math.min(state.getToggleTargetHundredths(), max));
+        SpeedState previousDefaults = speedConfig.getState();
+        if (!sameSpeeds(previousDefaults, speedConfig.update(clamp))) {
+            persistState("");
+        }
+        for (World world : Universe.get().getWorlds().values()) {
+            SpeedState state = speedConfig.getWorldState(world.getName());
+            if (state.getCurrentHundredths() <= max && state.getToggleTargetHundredths() <= max) {
+                continue;
             }
-        } else {
-            target = SpeedConstants.NORMAL_SPEED;
+            changeSpeed(world, clamp, "capped at", 0L, null, ChangeSource.COMMAND).exceptionally(error -> {
+                this.getLogger().at(Level.WARNING).log("Failed to cap the speed of world '%s': %s",
+                    world.getName(), unwrap(error).getMessage());
+                return null;
+            });
         }
+    }
 
-        speedConfig.setCurrentSpeed(target);
-        saveConfig();
-        applySpeed(target);
+    /**
+     * Pauses a world by holding it at {@link SpeedConstants#FREEZE_DILATION}. This is not a speed change: the world's
+     * speed stays as it is and is restored by {@link #resumeWorld(World)}, or on the next start. Until then speed
+     * changes are refused and the world only advances through {@link #stepWorld(World, int)}.
+     *
+     * @param world The world to freeze
+     * @return Future completed once the world is frozen, or exceptionally if it is busy or the dilation failed
+     */
+    public CompletableFuture<Void> freezeWorld(World world) {
+        String worldName = world.getName();
+        if (!holdWorld(worldName, "a freeze")) {
+            return CompletableFuture.failedFuture(new IllegalStateException(getBusyMessage(worldName)));
+        }
+        rampScheduler.cancel(worldName);
+        stepper.freeze(worldName);
 
-        NotificationService.notifySpeedChange(target, "toggled to");
+        return applyDilation(world, SpeedConstants.FREEZE_DILATION, SpeedConstants.FREEZE_DILATION).whenComplete((ignored, error) -> {
+            if (error != null) {
+                stepper.release(worldName);
+                releaseWorld(worldName);
+                return;
+            }
+            this.getLogger().at(Level.INFO).log("World '%s' frozen", worldName);
+        });
     }
-    
+
+    /**
+     * Advances a frozen world by a number of ticks at normal speed and freezes it again.
+     *
+     * @param world The frozen world
+     * @param ticks Number of ticks to advance, at most {@link SpeedConstants#STEP_MAX_TICKS}
+     * @return Future completed with the duration of every stepped tick once the world is frozen again, or
+     *         exceptionally if the world is not frozen, still stepping, or was resumed meanwhile
+     */
+    public CompletableFuture<List<TickStepper.TickSample>> stepWorld(World world, int ticks) {
+        if (ticks < 1 || ticks > SpeedConstants.STEP_MAX_TICKS) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Tick count must be between 1 and " + SpeedConstants.STEP_MAX_TICKS + "!"));
+        }
+
+        String worldName = world.getName();
+        CompletableFuture<List<TickStepper.TickSample>> stepping;
+        try {
+            stepping = stepper.prepareStep(worldName, ticks);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        applyDilation(world, SpeedConstants.NORMAL_SPEED, SpeedConstants.NORMAL_SPEED).whenComplete((ignored, error) -> {
+            if (error != null) {
+                stepper.abortStep(worldName, unwrap(error));
+            } else {
+                stepper.beginStep(worldName);
+            }
+        });
+        return stepping;
+    }
+
+    /**
+     * Ends a freeze and re-applies the world's speed.
+     *
+     * @param world The frozen world
+     * @return Future completed once the speed is re-applied, or exceptionally if the world was not frozen
+     */
+    public CompletableFuture<Void> resumeWorld(World world) {
+        String worldName = world.getName();
+        if (!stepper.release(worldName)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("World '" + worldName + "' is not frozen!"));
+        }
+        releaseWorld(worldName);
+        this.getLogger().at(Level.INFO).log("World '%s' resumed", worldName);
+
+        float speed = speedConfig.getWorldState(worldName).getCurrentSpeed();
+        return applySpeed(world, speed).whenComplete((ignored, error) -> {
+            if (error != null) {
+                this.getLogger().at(Level.SEVERE).withCause(unwrap(error)).log(
+                    "Failed to restore speed %f of world '%s' after a freeze", speed, worldName);
+                notifications.notifyError("Failed to apply game speed! Check server logs.");
+            }
+        });
+    }
+
+    /**
+     * Runs a world as fast as its tick budget allows until the given game time has passed, then re-applies its
+     * speed. The world is held meanwhile: speed changes are refused, so its current and toggle speed are the ones
+     * restored. A skip still running when the plugin stops is resumed with its remaining game time on the next start.
+     *
+     * @param world The world to skip forward
+     * @param gameTime Game time to skip, at most {@link SpeedConstants#MAX_SKIP_DAYS} days
+     * @return Future completed with the outcome, or exceptionally if the skip could not run
+     */
+    public CompletableFuture<TimeSkipper.Result> skipWorld(World world, Duration gameTime) {
+        if (gameTime.isNegative() || gameTime.isZero() || gameTime.compareTo(Duration.ofDays(SpeedConstants.MAX_SKIP_DAYS)) > 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                "Skip duration must be positive and at most " + SpeedConstants.MAX_SKIP_DAYS + " days!"));
+        }
+        if (speedConfig.getMaxSpeed() <= SpeedConstants.NORMAL_SPEED) {
+            return CompletableFuture.failedFuture(new IllegalStateException("MaxSpeed must be above 1.0 to skip time!"));
+        }
+
+        String worldName = world.getName();
+        if (!holdWorld(worldName, "a time skip")) {
+            return CompletableFuture.failedFuture(new IllegalStateException(getBusyMessage(worldName)));
+        }
+        rampScheduler.cancel(worldName);
+        this.getLogger().at(Level.INFO).log("Skipping %s of game time in world '%s'", gameTime, worldName);
+
+        return skipper.start(world, gameTime).handle((result, error) -> {
+            releaseWorld(worldName);
+            float restored = speedConfig.getWorldState(worldName).getCurrentSpeed();
+            applySpeed(world, restored).exceptionally(restoreError -> {
+                this.getLogger().at(Level.SEVERE).withCause(unwrap(restoreError)).log(
+                    "Failed to restore speed %f of world '%s' after the time skip", restored, worldName);
+                notifications.notifyError("Failed to apply game speed! Check server logs.");
+                return null;
+            });
+
+            if (error != null) {
+                throw new CompletionException(unwrap(error));
+            }
+            this.getLogger().at(Level.INFO).log("Time skip of world '%s' %s: %s of game time in %s",
+                worldName, result.isCancelled() ? "cancelled" : "finished", result.getSkipped(), result.getWallTime());
+            return result;
+        });
+    }
+
+    /**
+     * Stops a running time skip and re-applies the world's speed.
+     *
+     * @param world The world
+     * @return true if a skip was running
+     */
+    public boolean cancelSkip(World world) {
+        return skipper.cancel(world.getName());
+    }
+
+    /**
+     * @param world The world
+     * @return Progress of the world's time skip, or null if none is running
+     */
+    public TimeSkipper.Progress getSkipProgress(World world) {
+        return skipper.getProgress(world.getName());
+    }
+
+    /**
+     * Continues a time skip that was interrupted by a restart.
+     */
+    private void resumePendingSkip(World world) {
+        Duration remaining = skipper.takePending(world.getName());
+        if (remaining == null) {
+            return;
+        }
+        this.getLogger().at(Level.INFO).log("Resuming interrupted time skip of world '%s'", world.getName());
+        skipWorld(world, remaining).exceptionally(error -> {
+            this.getLogger().at(Level.WARNING).log("Failed to resume the time skip of world '%s': %s",
+                world.getName(), unwrap(error).getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * @param world The world
+     * @return true if the world is frozen
+     */
+    public boolean isFrozen(World world) {
+        return stepper.isFrozen(world.getName());
+    }
+
+    /**
+     * @param world The world
+     * @param count Maximum number of ticks to return
+     * @return The slowest ticks stepped since the world was last frozen, slowest first
+     */
+    public List<TickStepper.TickSample> getSlowestTicks(World world, int count) {
+        return stepper.getSlowestTicks(world.getName(), count);
+    }
+
+    private SpeedZone findZone(String name) {
+        for (SpeedZone zone : speedConfig.getZones()) {
+            if (zone.getName().equalsIgnoreCase(name)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
     public SpeedConfig getSpeedConfig() {
         return speedConfig;
     }
 
+    /**
+     * @return The API for plugins that follow the game speed
+     */
+    public SpeedService getSpeedService() {
+        return speedService;
+    }
+
     public SpeedValidator getValidator() {
         return validator;
     }
 
-    private void validateAndFixConfig() {
+    public ConfigWriter getConfigWriter() {
+        return configWriter;
+    }
+
+    /**
+     * @return The configured default ramp duration in milliseconds
+     */
+    public long getDefaultRampMs() {
+        return (long) (speedConfig.getDefaultRampSeconds() * 1000.0f);
+    }
+
+    public SpeedRampScheduler getRampScheduler() {
+        return rampScheduler;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
+    public LoadGovernor getGovernor() {
+        return governor;
+    }
+
+    public AdjustmentThrottle getAdjustmentThrottle() {
+        return adjustmentThrottle;
+    }
+
+    public ProfileScheduler getProfileScheduler() {
+        return profileScheduler;
+    }
+
+    /**
+     * @return The speed change journal, or null if it could not be opened
+     */
+    public SpeedJournal getJournal() {
+        return journal;
+    }
+
+    public NotificationService getNotifications() {
+        return notifications;
+    }
+
+    public SpeedMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Renders all plugin metrics in Prometheus text exposition format.
+     *
+     * @return The metrics dump
+     */
+    public String dumpMetrics() {
+        StringBuilder out = new StringBuilder(4096);
+        metrics.appendPrometheus(out);
+        SpeedMetrics.appendCounter(out, "customspeed_config_writes_total", "Config writes performed",
+            configWriter.getWrites());
+        SpeedMetrics.appendCounter(out, "customspeed_config_writes_coalesced_total", "Config writes saved by coalescing",
+            configWriter.getCoalescedWrites());
+        SpeedStateFile stateFile = this.stateFile;
+        if (stateFile != null) {
+            SpeedMetrics.appendCounter(out, "customspeed_state_writes_total", "State file slot writes performed",
+                stateFile.getWrites());
+        }
+        SpeedMetrics.appendCounter(out, "customspeed_notifications_coalesced_total", "Notifications merged into a later one",
+            notifications.getCoalescedNotifications());
+        SpeedMetrics.appendCounter(out, "customspeed_alerts_suppressed_total", "Errors and warnings dropped by rate limiting",
+            notifications.getSuppressedAlerts());
+        SpeedMetrics.appendCounter(out, "customspeed_adjustments_merged_total", "Speed adjustments merged into a pending one",
+            adjustmentThrottle.getMergedAdjustments());
+        SpeedMetrics.appendCounter(out, "customspeed_adjustments_rejected_total", "Speed adjustments rejected by rate limiting",
+            adjustmentThrottle.getRejectedAdjustments());
+        return out.toString();
+    }
+
+    /**
+     * Opts a player in or out of speed notifications and persists the choice.
+     *
+     * @param player The player's UUID
+     * @param optIn Whether the player wants speed notifications
+     */
+    public void setNotificationOptIn(UUID player, boolean optIn) {
+        if (speedConfig.setNotificationOptIn(player, optIn)) {
+            requestSave();
+        }
+    }
+
+    public DilationApplier getDilationApplier() {
+        return dilationApplier;
+    }
+
+    /**
+     * Replaces the strategy used to push time dilation into the server.
+     *
+     * @param dilationApplier The applier to use for subsequent speed changes
+     */
+    public void setDilationApplier(DilationApplier dilationApplier) {
+        this.dilationApplier = dilationApplier;
+    }
+
+    /**
+     * Switches to a scheduled speed profile through the regular change pipeline, so it is validated, ramped,
+     * persisted and announced like a command.
+     */
+    private CompletableFuture<Void> applyProfile(SpeedProfile profile) {
+        long rampMs = profile.getRampSeconds() >= 0 ? (long) (profile.getRampSeconds() * 1000.0f) : getDefaultRampMs();
+        this.getLogger().at(Level.INFO).log("Applying speed profile '%s' (%fx)", profile.getName(), profile.getSpeed());
+
+        CompletableFuture<Void> change;
+        if (profile.getWorld().isEmpty()) {
+            change = setSpeedMultiplierForAll(profile.getSpeed(), rampMs, null, ChangeSource.SCHEDULE);
+        } else {
+            World world = Universe.get().getWorld(profile.getWorld());
+            if (world == null) {
+                this.getLogger().at(Level.WARNING).log("Speed profile '%s' targets unknown world '%s'",
+                    profile.getName(), profile.getWorld());
+                return CompletableFuture.completedFuture(null);
+            }
+            change = setSpeedMultiplier(world, profile.getSpeed(), rampMs, null, ChangeSource.SCHEDULE).thenAccept(applied -> { });
+        }
+
+        return change.whenComplete((ignored, error) -> {
+            if (error != null) {
+                this.getLogger().at(Level.WARNING).log("Speed profile '%s' failed: %s",
+                    profile.getName(), unwrap(error).getMessage());
+            }
+        });
+    }
+
+    private void openSync() {
+        if (speedConfig.getSyncFile().isEmpty()) {
+            this.getLogger().at(Level.WARNING).log("SyncEnabled is set but SyncFile is empty, speed sync is disabled");
+            return;
+        }
+
+        try {
+            this.syncFile = SpeedSyncFile.open(Path.of(speedConfig.getSyncFile()));
+            this.syncSystem = new SpeedSyncSystem(syncFile, this::applySyncedSpeed,
+                e -> this.getLogger().at(Level.WARNING).withCause(e).log("Failed to publish a speed change to the sync file"));
+            this.getEntityStoreRegistry().registerSystem(this.syncSystem);
+        } catch (IOException | RuntimeException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to open sync file '%s', speed sync is disabled",
+                speedConfig.getSyncFile());
+            this.syncFile = null;
+        }
+    }
+
+    /**
+     * Adopts the speeds other processes already published, and publishes those of loaded worlds nobody shared yet.
+     */
+    private void joinSync() {
+        Set<String> shared = new HashSet<>();
+        for (int slot = 0; slot < syncFile.getSlotCount(); slot++) {
+            SpeedSyncFile.Snapshot snapshot = syncFile.read(slot);
+            if (snapshot != null && snapshot.getVersion() != 0L) {
+                shared.add(snapshot.getWorldName());
+            }
+        }
+        this.getLogger().at(Level.INFO).log("Joining speed sync, %d world(s) shared", shared.size());
+        syncSystem.poll();
+
+        for (World world : Universe.get().getWorlds().values()) {
+            if (!shared.contains(world.getName())) {
+                publishSync(world.getName(), speedConfig.getWorldState(world.getName()));
+            }
+        }
+    }
+
+    private void publishSync(String worldName, SpeedState state) {
+        if (syncFile != null) {
+            syncSystem.publish(worldName, state);
+        }
+    }
+
+    /**
+     * Applies a world speed published by another process to the world of the same name. A world that is not loaded
+     * keeps the speed for when it starts. Runs on a world thread, so the change is only started here.
+     */
+    private void applySyncedSpeed(SpeedSyncFile.Snapshot snapshot) {
+        String worldName = snapshot.getWorldName();
+        SpeedState state = speedConfig.getWorldState(worldName);
+        int current = validator.clamp(state, snapshot.getCurrentHundredths());
+        int toggleTarget = validator.clamp(state, snapshot.getToggleTargetHundredths());
+        if (state.getCurrentHundredths() == current && state.getToggleTargetHundredths() == toggleTarget) {
+            return;
+        }
+
+        World world = Universe.get().getWorld(worldName);
+        if (world == null) {
+            speedConfig.getWorldStates().put(worldName, new AtomicReference<>(state.withSpeeds(current, toggleTarget)));
+            persistState(worldName);
+            return;
+        }
+        changeSpeed(world, latest -> latest.withSpeeds(validator.clamp(latest, current), validator.clamp(latest, toggleTarget)),
+            "synced to", getDefaultRampMs(), null, ChangeSource.SYNC).exceptionally(error -> {
+                this.getLogger().at(Level.WARNING).log("Failed to apply synced speed to world '%s': %s",
+                    worldName, unwrap(error).getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Drops zones that fail validation (e.g. a speed outside the bounds) and indexes the rest.
+     */
+    private void validateZones() {
+        List<SpeedZone> valid = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (SpeedZone zone : speedConfig.getZones()) {
+            String error = validator.getZoneValidationError(zone);
+            if (error == null && !names.add(zone.getName().toLowerCase(Locale.ROOT))) {
+                error = "Duplicate zone name";
+            }
+            if (error != null) {
+                this.getLogger().at(Level.WARNING).log("Ignoring speed zone '%s': %s", zone.getName(), error);
+                continue;
+            }
+            valid.add(zone);
+        }
+
+        if (valid.size() != speedConfig.getZones().length) {
+            speedConfig.setZones(valid.toArray(new SpeedZone[0]));
+            requestSave();
+        }
+        zoneIndex.rebuild(speedConfig.getZones());
+    }
+
+    private void watchConfig() {
+        ConfigWatcher watcher = new ConfigWatcher(this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME),
+            this::reloadConfig, e -> this.getLogger().at(Level.WARNING).withCause(e).log("Config hot reload failed"));
+        try {
+            watcher.start();
+            this.configWatcher = watcher;
+        } catch (IOException e) {
+            watcher.shutdown();
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to watch the config file, edits need a plugin reload");
+        }
+    }
+
+    /**
+     * Applies an edit of the config file without a plugin reload. The file is decoded into a fresh config, fixed
+     * with the same rules as on startup and compared with the live settings; only what differs is applied, and a
+     * world's speed is only re-applied if its current or toggle speed actually moved.
+     *
+     * @return false if the file could not be loaded and the current settings were kept
+     */
+    private synchronized boolean reloadConfig() {
+        SpeedConfig reloaded;
+        try {
+            long checksum = configFileChecksum();
+            reloaded = new Config<>(this.getDataDirectory(), "config", SpeedConfig.CODEC).load().join();
+            // The edit is merged into the live config, so the next save may replace the file again
+            synchronized (configFileLock) {
+                knownConfigChecksum = checksum;
+            }
+        } catch (IOException | RuntimeException e) {
+            this.getLogger().at(Level.WARNING).log("Failed to reload the edited config, keeping the current settings: %s",
+                unwrap(e).getMessage());
+            return false;
+        }
+        boolean corrected = validateAndFixConfig(reloaded);
+        List<String> changed = new ArrayList<>();
+
+        // Bounds first: the speeds below are clamped to them
+        if (reloaded.getMinSpeed() != speedConfig.getMinSpeed()) {
+            speedConfig.setMinSpeed(reloaded.getMinSpeed());
+            changed.add("MinSpeed");
+        }
+        if (reloaded.getMaxSpeed() != speedConfig.getMaxSpeed()) {
+            speedConfig.setMaxSpeed(reloaded.getMaxSpeed());
+            changed.add("MaxSpeed");
+        }
+
+        // The live speeds usually differ from the file's, so only speeds edited in the file replace them
+        SpeedState previousDefaults = speedConfig.getState();
+        if (reloaded.getConfiguredCurrentSpeed() != speedConfig.getConfiguredCurrentSpeed()) {
+            speedConfig.setCurrentSpeed(reloaded.getConfiguredCurrentSpeed());
+            changed.add("CurrentSpeed");
+        }
+        if (reloaded.getConfiguredToggleTargetSpeed() != speedConfig.getConfiguredToggleTargetSpeed()) {
+            speedConfig.setToggleTargetSpeed(reloaded.getConfiguredToggleTargetSpeed());
+            changed.add("ToggleTargetSpeed");
+        }
+        SpeedState defaults = speedConfig.update(state -> state.withSpeeds(
+            validator.clamp(state, state.getCurrentHundredths()), validator.clamp(state, state.getToggleTargetHundredths())));
+        if (!sameSpeeds(defaults, previousDefaults)) {
+            persistState("");
+        }
+
+        if (reloadWorldSpeeds(reloaded, previousDefaults)) {
+            changed.add("WorldSpeeds");
+        }
+
+        if (reloaded.getDefaultRampSeconds() != speedConfig.getDefaultRampSeconds()) {
+            speedConfig.setDefaultRampSeconds(reloaded.getDefaultRampSeconds());
+            changed.add("DefaultRampSeconds");
+        }
+        if (!reloaded.getRampCurve().equals(speedConfig.getRampCurve())) {
+            speedConfig.setRampCurve(reloaded.getRampCurve());
+            changed.add("RampCurve");
+        }
+        if (reloaded.isGovernorEnabled() != speedConfig.isGovernorEnabled()) {
+            speedConfig.setGovernorEnabled(reloaded.isGovernorEnabled());
+            changed.add("GovernorEnabled");
+        }
+        if (reloaded.getTickBudgetMs() != speedConfig.getTickBudgetMs()) {
+            speedConfig.setTickBudgetMs(reloaded.getTickBudgetMs());
+            changed.add("TickBudgetMs");
+        }
+        if (!Arrays.equals(reloaded.getProbeLadder(), speedConfig.getProbeLadder())) {
+            speedConfig.setProbeLadder(reloaded.getProbeLadder());
+            changed.add("ProbeLadder");
+        }
+        if (reloaded.getProbeWarmupSeconds() != speedConfig.getProbeWarmupSeconds()) {
+            speedConfig.setProbeWarmupSeconds(reloaded.getProbeWarmupSeconds());
+            changed.add("ProbeWarmupSeconds");
+        }
+        if (reloaded.getProbeMeasureSeconds() != speedConfig.getProbeMeasureSeconds()) {
+            speedConfig.setProbeMeasureSeconds(reloaded.getProbeMeasureSeconds());
+            changed.add("ProbeMeasureSeconds");
+        }
+        if (reloaded.getNotificationTarget() != speedConfig.getNotificationTarget()) {
+            speedConfig.setNotificationTarget(reloaded.getNotificationTarget());
+            changed.add("NotificationTarget");
+        }
+        if (!Arrays.equals(reloaded.getNotificationOptIns(), speedConfig.getNotificationOptIns())) {
+            speedConfig.setNotificationOptIns(reloaded.getNotificationOptIns());
+            changed.add("NotificationOptIns");
+        }
+        if (!Arrays.equals(reloaded.getProfiles(), speedConfig.getProfiles())) {
+            speedConfig.setProfiles(reloaded.getProfiles());
+            profileScheduler.reload();
+            changed.add("Profiles");
+        }
+        if (!Arrays.equals(reloaded.getZones(), speedConfig.getZones())) {
+            speedConfig.setZones(reloaded.getZones());
+            validateZones();
+            changed.add("Zones");
+        }
+
+        // Threads and files set up at startup stay as they are
+        if (reloaded.isExportMetrics() != speedConfig.isExportMetrics()
+            || reloaded.isSyncEnabled() != speedConfig.isSyncEnabled()
+            || !reloaded.getSyncFile().equals(speedConfig.getSyncFile())) {
+            this.getLogger().at(Level.WARNING).log("ExportMetrics, SyncEnabled and SyncFile only take effect after a plugin reload");
+        }
+
+        if (corrected) {
+            requestSave();
+        }
+        this.getLogger().at(Level.INFO).log("Config file changed, reloaded: %s",
+            changed.isEmpty() ? "nothing to apply" : String.join(", ", changed));
+        return true;
+    }
+
+    /**
+     * Applies per-world speeds edited in the config file. Loaded worlds whose speed moved go through the change
+     * pipeline; the states of other worlds are replaced and applied when those worlds start. Speeds left outside
+     * changed bounds are clamped.
+     *
+     * @param reloaded The reloaded config
+     * @param previousDefaults The live default state before the reload
+     * @return true if any world's speed changed
+     */
+    private boolean reloadWorldSpeeds(SpeedConfig reloaded, SpeedState previousDefaults) {
+        Map<String, WorldSpeedEntry> previousEntries = indexWorldSpeeds(speedConfig.getWorldSpeeds());
+        Map<String, WorldSpeedEntry> reloadedEntries = indexWorldSpeeds(reloaded.getWorldSpeeds());
+        speedConfig.setConfiguredWorldSpeeds(reloaded.getWorldSpeeds());
+
+        Map<String, World> loaded = new HashMap<>();
+        for (World world : Universe.get().getWorlds().values()) {
+            loaded.put(world.getName(), world);
+        }
+        Set<String> worldNames = new HashSet<>(loaded.keySet());
+        worldNames.addAll(previousEntries.keySet());
+        worldNames.addAll(reloadedEntries.keySet());
+        worldNames.addAll(speedConfig.getWorldStates().keySet());
+
+        boolean changed = false;
+        for (String worldName : worldNames) {
+            WorldSpeedEntry previousEntry = previousEntries.get(worldName);
+            WorldSpeedEntry reloadedEntry = reloadedEntries.get(worldName);
+            AtomicReference<SpeedState> own = speedConfig.getWorldStates().get(worldName);
+            SpeedState before = own != null ? own.get() : previousDefaults;
+
+            boolean edited = !sameSpeeds(previousEntry, reloadedEntry);
+            SpeedState desired;
+            if (edited) {
+                desired = reloadedEntry != null ? reloaded.getWorldState(worldName) : speedConfig.getState();
+            } else {
+                desired = own != null ? before : speedConfig.getState();
+            }
+            int current = validator.clamp(speedConfig.getState(), desired.getCurrentHundredths());
+            int toggleTarget = validator.clamp(speedConfig.getState(), desired.getToggleTargetHundredths());
+            if (current == before.getCurrentHundredths() && toggleTarget == before.getToggleTargetHundredths()) {
+                continue;
+            }
+            changed = true;
+
+            World world = loaded.get(worldName);
+            if (world != null) {
+                changeSpeed(world, state -> state.withSpeeds(validator.clamp(state, current), validator.clamp(state, toggleTarget)),
+                    "reloaded to", getDefaultRampMs(), null, ChangeSource.RELOAD).exceptionally(error -> {
+                        this.getLogger().at(Level.WARNING).log("Failed to apply reloaded speed to world '%s': %s",
+                            world.getName(), unwrap(error).getMessage());
+                        return null;
+                    });
+            } else if (edited && reloadedEntry == null) {
+                // Removed from the file: the world follows the default state again
+                speedConfig.getWorldStates().remove(worldName);
+                removeState(worldName);
+            } else {
+                speedConfig.getWorldStates().put(worldName,
+                    new AtomicReference<>(speedConfig.getState().withSpeeds(current, toggleTarget)));
+                persistState(worldName);
+            }
+        }
+        return changed;
+    }
+
+    private static Map<String, WorldSpeedEntry> indexWorldSpeeds(WorldSpeedEntry[] entries) {
+        Map<String, WorldSpeedEntry> index = new HashMap<>();
+        for (WorldSpeedEntry entry : entries) {
+            index.put(entry.getWorld(), entry);
+        }
+        return index;
+    }
+
+    private static boolean sameSpeeds(WorldSpeedEntry a, WorldSpeedEntry b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getCurrentSpeed() == b.getCurrentSpeed() && a.getToggleTargetSpeed() == b.getToggleTargetSpeed();
+    }
+
+    private static boolean sameSpeeds(SpeedState a, SpeedState b) {
+        return a.getCurrentHundredths() == b.getCurrentHundredths() && a.getToggleTargetHundredths() == b.getToggleTargetHundredths();
+    }
+
+    /**
+     * Opens the state file and restores the live speeds from it. Without a usable state file (first start after an
+     * update, or a corrupt file) the speeds from the config are kept and written to a fresh state file.
+     *
+     * @return When the restored speeds were persisted, in epoch milliseconds
+     */
+    private long restoreState() {
+        Path configFile = this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME);
+        Path statePath = this.getDataDirectory().resolve(SpeedConstants.STATE_FILE_NAME);
+        long persistedAt;
+        Map<String, SpeedStateFile.StoredSpeed> stored;
+        long start = System.nanoTime();
+        try {
+            persistedAt = Files.exists(configFile) ? Files.getLastModifiedTime(configFile).toMillis() : 0L;
+            this.stateFile = SpeedStateFile.open(statePath);
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to open the state file, speed changes will not persist");
+            return 0L;
+        }
+
+        try {
+            stored = stateFile.read();
+            if (stateFile.getCorruptSlots() > 0) {
+                this.getLogger().at(Level.WARNING).log("State file has %d corrupt slot(s), those worlds fall back to the speeds in the config",
+                    stateFile.getCorruptSlots());
+            }
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).log("State file is corrupt (%s), falling back to the speeds in the config", e.getMessage());
+            stored = Map.of();
+        }
+
+        if (stored.isEmpty()) {
+            Map<String, SpeedStateFile.StoredSpeed> states = new LinkedHashMap<>();
+            states.put("", storedSpeed(speedConfig.getState()));
+            speedConfig.getWorldStates().forEach((worldName, state) -> states.put(worldName, storedSpeed(state.get())));
+            try {
+                stateFile.rewrite(states);
+                this.getLogger().at(Level.INFO).log("Moved the speeds of %d world(s) from the config to the state file",
+                    speedConfig.getWorldStates().size());
+            } catch (IOException e) {
+                this.getLogger().at(Level.WARNING).withCause(e).log("Failed to write the state file, speed changes will not persist");
+                stateFile.close();
+                this.stateFile = null;
+            }
+            return persistedAt;
+        }
+
+        SpeedStateFile.StoredSpeed defaults = stored.remove("");
+        if (defaults != null) {
+            speedConfig.update(state -> state.withSpeeds(validator.clamp(state, defaults.getCurrentHundredths()),
+                validator.clamp(state, defaults.getToggleTargetHundredths())));
+        }
+        stored.forEach((worldName, speed) -> {
+            SpeedState state = speedConfig.getState();
+            speedConfig.getWorldStates().put(worldName, new AtomicReference<>(state.withSpeeds(
+                validator.clamp(state, speed.getCurrentHundredths()), validator.clamp(state, speed.getToggleTargetHundredths()))));
+        });
+        this.getLogger().at(Level.INFO).log("Restored the speeds of %d world(s) from the state file in %d us",
+            stored.size(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+        try {
+            return Files.getLastModifiedTime(statePath).toMillis();
+        } catch (IOException e) {
+            return persistedAt;
+        }
+    }
+
+    private static SpeedStateFile.StoredSpeed storedSpeed(SpeedState state) {
+        return new SpeedStateFile.StoredSpeed(state.getCurrentHundredths(), state.getToggleTargetHundredths());
+    }
+
+    /**
+     * Writes the live speeds of a world, or of the default state for "", to the state file.
+     */
+    private void persistState(String worldName) {
+        SpeedStateFile stateFile = this.stateFile;
+        if (stateFile == null) {
+            return;
+        }
+        // Read under the file lock so concurrent writers of one world cannot store an older state last
+        synchronized (stateFile) {
+            SpeedState state = worldName.isEmpty() ? speedConfig.getState() : speedConfig.getWorldState(worldName);
+            try {
+                stateFile.write(worldName, state.getCurrentHundredths(), state.getToggleTargetHundredths());
+            } catch (IOException e) {
+                this.getLogger().at(Level.WARNING).withCause(e).log("Failed to write the speed of '%s' to the state file", worldName);
+            }
+        }
+    }
+
+    private void removeState(String worldName) {
+        SpeedStateFile stateFile = this.stateFile;
+        if (stateFile == null) {
+            return;
+        }
+        try {
+            stateFile.remove(worldName);
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to remove the speed of '%s' from the state file", worldName);
+        }
+    }
+
+    private SpeedJournal openJournal() {
+        try {
+            return SpeedJournal.open(this.getDataDirectory().resolve(SpeedConstants.JOURNAL_DIRECTORY),
+                SpeedConstants.JOURNAL_RECORDS_PER_SEGMENT, SpeedConstants.JOURNAL_MAX_SEGMENTS);
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to open the speed journal, changes will not be recorded");
+            return null;
+        }
+    }
+
+    /**
+     * Restores world speeds that were journaled after the speeds were last persisted, e.g. because a state file write
+     * failed or the speeds still came from an older config.
+     *
+     * @param persistedAt When the restored speeds were written, in epoch milliseconds
+     */
+    private void recoverFromJournal(long persistedAt) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            int recovered = 0;
+            for (JournalRecord record : journal.recoverLatest().values()) {
+                if (record.getTimestampMillis() <= persistedAt) {
+                    continue;
+                }
+                SpeedState state = speedConfig.getWorldState(record.getWorld());
+                int speed = validator.clamp(state, record.getNewHundredths());
+                if (speed != state.getCurrentHundredths()
+                    && speedConfig.compareAndSetWorld(record.getWorld(), state, state.withCurrent(speed))) {
+                    persistState(record.getWorld());
+                    recovered++;
+                }
+            }
+
+            if (recovered > 0) {
+                this.getLogger().at(Level.INFO).log("Recovered the speed of %d world(s) from the journal", recovered);
+            }
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to recover speeds from the journal");
+        }
+    }
+
+    /**
+     * Resets settings that are out of bounds to their defaults, logging each correction.
+     *
+     * @param checked The config to fix in place
+     * @return true if anything was corrected
+     */
+    private boolean validateAndFixConfig(SpeedConfig checked) {
         boolean configChanged = false;
 
         // Validate min/max speed bounds
-        if (speedConfig.getMinSpeed() <= 0 || speedConfig.getMinSpeed() > speedConfig.getMaxSpeed()) {
+        if (checked.getMinSpeed() <= 0 || checked.getMinSpeed() > checked.getMaxSpeed()) {
             this.getLogger().at(Level.WARNING).log("Invalid minSpeed in config (%f), resetting to 0.01",
-                speedConfig.getMinSpeed());
-            speedConfig.setMinSpeed(0.01f);
+                checked.getMinSpeed());
+            checked.setMinSpeed(0.01f);
             configChanged = true;
         }
 
-        if (speedConfig.getMaxSpeed() <= speedConfig.getMinSpeed() || speedConfig.getMaxSpeed() > 100.0f) {
+        if (checked.getMaxSpeed() <= checked.getMinSpeed() || checked.getMaxSpeed() > SpeedConstants.MAX_SPEED_LIMIT) {
             this.getLogger().at(Level.WARNING).log("Invalid maxSpeed in config (%f), resetting to 10.0",
-                speedConfig.getMaxSpeed());
-            speedConfig.setMaxSpeed(10.0f);
+                checked.getMaxSpeed());
+            checked.setMaxSpeed(10.0f);
             configChanged = true;
         }
 
         // Validate current speed is within bounds
-        if (speedConfig.getCurrentSpeed() < speedConfig.getMinSpeed() ||
-            speedConfig.getCurrentSpeed() > speedConfig.getMaxSpeed()) {
+        if (checked.getCurrentSpeed() < checked.getMinSpeed() ||
+            checked.getCurrentSpeed() > checked.getMaxSpeed()) {
             this.getLogger().at(Level.WARNING).log("Current speed (%f) out of bounds, resetting to 1.0",
-                speedConfig.getCurrentSpeed());
-            speedConfig.setCurrentSpeed(SpeedConstants.NORMAL_SPEED);
+                checked.getCurrentSpeed());
+            checked.setCurrentSpeed(SpeedConstants.NORMAL_SPEED);
             configChanged = true;
         }
 
         // Validate toggle target speed
-        if (speedConfig.getToggleTargetSpeed() < speedConfig.getMinSpeed() ||
-            speedConfig.getToggleTargetSpeed() > speedConfig.getMaxSpeed()) {
+        if (checked.getToggleTargetSpeed() < checked.getMinSpeed() ||
+            checked.getToggleTargetSpeed() > checked.getMaxSpeed()) {
             this.getLogger().at(Level.WARNING).log("Toggle target speed (%f) out of bounds, resetting to 0.5",
-                speedConfig.getToggleTargetSpeed());
-            speedConfig.setToggleTargetSpeed(SpeedConstants.DEFAULT_TOGGLE_SPEED);
+                checked.getToggleTargetSpeed());
+            checked.setToggleTargetSpeed(SpeedConstants.DEFAULT_TOGGLE_SPEED);
             configChanged = true;
         }
 
-        if (configChanged) {
-            this.getLogger().at(Level.INFO).log("Config was corrected, saving changes");
-            saveConfig();
+        // Validate default ramp duration
+        if (checked.getDefaultRampSeconds() < 0 || checked.getDefaultRampSeconds() > SpeedConstants.MAX_RAMP_SECONDS) {
+            this.getLogger().at(Level.WARNING).log("Default ramp (%f s) out of bounds, resetting to 0",
+                checked.getDefaultRampSeconds());
+            checked.setDefaultRampSeconds(0.0f);
+            configChanged = true;
+        }
+
+        // Validate tick budget
+        if (checked.getTickBudgetMs() <= 0) {
+            this.getLogger().at(Level.WARNING).log("Invalid tick budget (%f ms), resetting to %f",
+                checked.getTickBudgetMs(), SpeedConstants.DEFAULT_TICK_BUDGET_MS);
+            checked.setTickBudgetMs(SpeedConstants.DEFAULT_TICK_BUDGET_MS);
+            configChanged = true;
+        }
+
+        // Validate probe ladder: positive, strictly ascending speeds within the accepted limit
+        Float[] ladder = checked.getProbeLadder();
+        boolean ladderValid = ladder.length > 0;
+        for (int i = 0; i < ladder.length && ladderValid; i++) {
+            ladderValid = ladder[i] != null && ladder[i] > 0 && ladder[i] <= SpeedConstants.MAX_SPEED_LIMIT
+                && (i == 0 || ladder[i] > ladder[i - 1]);
+        }
+        if (!ladderValid) {
+            this.getLogger().at(Level.WARNING).log("Invalid probe ladder %s, resetting to %s",
+                Arrays.toString(ladder), Arrays.toString(SpeedConstants.DEFAULT_PROBE_LADDER));
+            checked.setProbeLadder(SpeedConstants.DEFAULT_PROBE_LADDER.clone());
+            configChanged = true;
+        }
+
+        // Validate probe step durations
+        if (checked.getProbeWarmupSeconds() < 0 || checked.getProbeWarmupSeconds() > SpeedConstants.MAX_PROBE_STEP_SECONDS) {
+            this.getLogger().at(Level.WARNING).log("Probe warm-up (%f s) out of bounds, resetting to %f",
+                checked.getProbeWarmupSeconds(), SpeedConstants.DEFAULT_PROBE_WARMUP_SECONDS);
+            checked.setProbeWarmupSeconds(SpeedConstants.DEFAULT_PROBE_WARMUP_SECONDS);
+            configChanged = true;
+        }
+        if (checked.getProbeMeasureSeconds() <= 0 || checked.getProbeMeasureSeconds() > SpeedConstants.MAX_PROBE_STEP_SECONDS) {
+            this.getLogger().at(Level.WARNING).log("Probe measurement window (%f s) out of bounds, resetting to %f",
+                checked.getProbeMeasureSeconds(), SpeedConstants.DEFAULT_PROBE_MEASURE_SECONDS);
+            checked.setProbeMeasureSeconds(SpeedConstants.DEFAULT_PROBE_MEASURE_SECONDS);
+            configChanged = true;
+        }
+
+        // Validate per-world speeds against the (possibly corrected) bounds
+        for (Map.Entry<String, AtomicReference<SpeedState>> entry : checked.getWorldStates().entrySet()) {
+            SpeedState worldState = entry.getValue().get();
+            if (worldState.getCurrentSpeed() < worldState.getMinSpeed() || worldState.getCurrentSpeed() > worldState.getMaxSpeed() ||
+                worldState.getToggleTargetSpeed() < worldState.getMinSpeed() || worldState.getToggleTargetSpeed() > worldState.getMaxSpeed()) {
+                this.getLogger().at(Level.WARNING).log("Speed of world '%s' (%f) out of bounds, resetting to 1.0",
+                    entry.getKey(), worldState.getCurrentSpeed());
+                entry.getValue().set(worldState.withSpeeds(SpeedUnits.NORMAL_HUNDREDTHS, SpeedUnits.DEFAULT_TOGGLE_HUNDREDTHS));
+                configChanged = true;
+            }
+        }
+
+        // The configured entries seed the live states and are saved back as they are, so they get the same fix
+        WorldSpeedEntry[] seeds = checked.getWorldSpeeds();
+        WorldSpeedEntry[] fixedSeeds = null;
+        for (int i = 0; i < seeds.length; i++) {
+            WorldSpeedEntry seed = seeds[i];
+            if (seed.getCurrentSpeed() < checked.getMinSpeed() || seed.getCurrentSpeed() > checked.getMaxSpeed() ||
+                seed.getToggleTargetSpeed() < checked.getMinSpeed() || seed.getToggleTargetSpeed() > checked.getMaxSpeed()) {
+                if (fixedSeeds == null) {
+                    fixedSeeds = seeds.clone();
+                }
+                fixedSeeds[i] = new WorldSpeedEntry(seed.getWorld(), SpeedConstants.NORMAL_SPEED, SpeedConstants.DEFAULT_TOGGLE_SPEED);
+            }
         }
+        if (fixedSeeds != null) {
+            checked.setConfiguredWorldSpeeds(fixedSeeds);
+            configChanged = true;
+        }
+
+        return configChanged;
+    }
+
+    /**
+     * Queues a config write on the background writer instead of saving on the calling thread.
+     */
+    private void requestSave() {
+        configWriter.markDirty();
     }
 
+    /**
+     * Loads the config through a staging copy of config.json. The config is always saved to the staging copy, which
+     * then replaces config.json with an atomic rename, so a crash or full disk in the middle of a save never leaves
+     * a truncated config.json behind. The checksum of the loaded config.json is remembered; see {@link #saveConfig()}.
+     */
+    private SpeedConfig openConfig() {
+        Path staging = this.getDataDirectory().resolve(SpeedConstants.CONFIG_STAGING_DIRECTORY);
+        Path configFile = this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME);
+        try {
+            Files.createDirectories(staging);
+            synchronized (configFileLock) {
+                knownConfigChecksum = configFileChecksum();
+            }
+            // A staged file left by an interrupted save is stale, config.json is the last complete one
+            if (Files.exists(configFile)) {
+                Files.copy(configFile, staging.resolve(SpeedConstants.CONFIG_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(staging.resolve(SpeedConstants.CONFIG_FILE_NAME));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to stage the config file", e);
+        }
+
+        this.config = new Config<>(staging, "config", SpeedConfig.CODEC);
+        return this.config.load().join();
+    }
+
+    /**
+     * Saves the config to the staging copy and moves it over config.json, unless config.json was edited since the
+     * plugin last loaded or wrote it. An edited file is left alone and reloaded instead; the reload merges the edit
+     * into the live config and queues another save, which then carries both.
+     */
     private void saveConfig() {
+        long start = System.nanoTime();
         try {
-            this.config.save();
+            boolean edited;
+            synchronized (configFileLock) {
+                this.config.save().join();
+                edited = configFileChecksum() != knownConfigChecksum;
+                if (!edited) {
+                    Path staged = this.getDataDirectory().resolve(SpeedConstants.CONFIG_STAGING_DIRECTORY)
+                        .resolve(SpeedConstants.CONFIG_FILE_NAME);
+                    long checksum = checksumOf(staged);
+                    Files.move(staged, this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    knownConfigChecksum = checksum;
+                }
+            }
+            if (edited) {
+                this.getLogger().at(Level.WARNING).log(
+                    "config.json was edited since it was loaded, reloading it instead of overwriting the edit");
+                // A file that does not load is left for the operator to fix; saving resumes with the next change
+                if (reloadConfig()) {
+                    requestSave();
+                }
+                return;
+            }
+            metrics.recordSave(System.nanoTime() - start, true);
+
+            ConfigWatcher watcher = this.configWatcher;
+            if (watcher != null) {
+                watcher.recordOwnWrite();
+            }
         } catch (Exception e) {
+            metrics.recordSave(System.nanoTime() - start, false);
             this.getLogger().at(Level.SEVERE).withCause(e).log("Failed to save config");
-            NotificationService.notifyError("Failed to save configuration! Settings may not persist.");
+            notifications.notifyError("Failed to save configuration! Settings may not persist.");
         }
     }
 
-    private boolean applySpeed(float targetMultiplier) {
+    /**
+     * @return Checksum of config.json, -1 if it does not exist
+     */
+    private long configFileChecksum() throws IOException {
+        Path configFile = this.getDataDirectory().resolve(SpeedConstants.CONFIG_FILE_NAME);
+        return Files.exists(configFile) ? checksumOf(configFile) : -1L;
+    }
+
+    private static long checksumOf(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(file));
+        return crc.getValue();
+    }
+
+    private void applySavedSpeed(World world) {
+        float speed = speedConfig.getWorldState(world.getName()).getCurrentSpeed();
+        // Time at speed starts at the dilation the world runs at now; the listener follows every applied change
+        metrics.recordSpeedLevel(world.getName(), SpeedUnits.toHundredths(speedService.getSpeed(world)));
+        applySpeed(world, speed).exceptionally(error -> {
+            this.getLogger().at(Level.SEVERE).withCause(unwrap(error)).log("Failed to apply saved speed %f to world '%s'",
+                speed, world.getName());
+            notifications.notifyError("Failed to apply game speed! Check server logs.");
+            return null;
+        });
+    }
+
+    /**
+     * Runs a speed change on one world. The transition is installed with compare-and-set against the world's latest
+     * snapshot and retried on contention, so the new state is visible immediately and follow-up commands build on it.
+     * If the server does not accept the dilation in time, the previous speeds are restored and re-applied.
+     */
+    private CompletableFuture<Float> changeSpeed(World world, UnaryOperator<SpeedState> transition, String action, long rampMs,
+                                                 UUID actor, ChangeSource source) {
+        String worldName = world.getName();
+        if (heldWorlds.containsKey(worldName)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(getBusyMessage(worldName)));
+        }
+
+        SpeedState previous;
+        SpeedState next;
+        do {
+            previous = speedConfig.getWorldState(worldName);
+            next = transition.apply(previous);
+        } while (!speedConfig.compareAndSetWorld(worldName, previous, next));
+
+        SpeedState before = previous;
+        SpeedState applied = next;
+        float target = applied.getCurrentSpeed();
+
+        CompletableFuture<SpeedRampScheduler.Outcome> applying;
+        if (rampMs > 0) {
+            RampCurve curve = RampCurve.fromName(speedConfig.getRampCurve());
+            applying = rampScheduler.rampTo(world, before.getCurrentSpeed(), target, rampMs, curve);
+        } else {
+            rampScheduler.cancel(worldName);
+            applying = applySpeed(world, target).thenApply(ignored -> SpeedRampScheduler.Outcome.APPLIED);
+        }
+
+        return applying
+            .orTimeout(rampMs + SpeedConstants.APPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .handle((outcome, error) -> {
+                if (error != null) {
+                    rollback(world, applied, before, unwrap(error));
+                    throw new CompletionException(new IllegalStateException("Failed to apply game speed", unwrap(error)));
+                }
+                if (outcome == SpeedRampScheduler.Outcome.SUPERSEDED) {
+                    // The newer change builds on our state and persists, announces or rolls back on its own
+                    return target;
+                }
+
+                persistState(worldName);
+                record(new JournalRecord(System.currentTimeMillis(), worldName,
+                    before.getCurrentHundredths(), applied.getCurrentHundredths(), actor, source));
+                if (source != ChangeSource.SYNC) {
+                    publishSync(worldName, applied);
+                }
+                metrics.recordSpeedChange();
+                notifications.notifySpeedChange(world, applied.getCurrentHundredths(), action);
+                return target;
+            });
+    }
+
+    /**
+     * Marks a world as driven by a job.
+     *
+     * @param worldName The world name
+     * @param job Description of the job for messages, e.g. "a speed probe"
+     * @return true if the world was free
+     */
+    private boolean holdWorld(String worldName, String job) {
+        return heldWorlds.putIfAbsent(worldName, job) == null;
+    }
+
+    private void releaseWorld(String worldName) {
+        heldWorlds.remove(worldName);
+    }
+
+    private String getBusyMessage(String worldName) {
+        return "World '" + worldName + "' is busy, " + heldWorlds.getOrDefault(worldName, "a job") + " is running!";
+    }
+
+    private void record(JournalRecord record) {
+        SpeedJournal journal = this.journal;
+        if (journal == null) {
+            return;
+        }
         try {
-            String command = "time dilation " + targetMultiplier;
-            this.getLogger().at(Level.FINE).log("Executing command: %s", command);
+            journal.append(record);
+        } catch (IOException e) {
+            this.getLogger().at(Level.WARNING).withCause(e).log("Failed to write speed change to the journal");
+        }
+    }
+
+    private void rollback(World world, SpeedState failed, SpeedState previous, Throwable error) {
+        this.getLogger().at(Level.SEVERE).withCause(error).log("Failed to apply speed %f to world '%s', rolling back to %f",
+            failed.getCurrentSpeed(), world.getName(), previous.getCurrentSpeed());
+        notifications.notifyError("Failed to apply game speed! Check server logs.");
 
-            // handleCommand returns CompletableFuture<Void>, we assume success if no exception thrown
-            HytaleServer.get().getCommandManager().handleCommand(ConsoleSender.INSTANCE, command);
+        // Only restore if no newer change has replaced ours in the meantime
+        SpeedState restored = failed.withSpeeds(previous.getCurrentHundredths(), previous.getToggleTargetHundredths());
+        if (!speedConfig.compareAndSetWorld(world.getName(), failed, restored)) {
+            return;
+        }
+
+        // The failed apply may have reached the world late, so push the previous value back out
+        rampScheduler.cancel(world.getName());
+        CompletableFuture<Void> reapplying = applySpeed(world, previous.getCurrentSpeed());
+        reapplying.exceptionally(rollbackError -> {
+            this.getLogger().at(Level.SEVERE).withCause(rollbackError).log("Failed to re-apply speed %f after rollback",
+                previous.getCurrentSpeed());
+            return null;
+        });
+    }
 
-            this.getLogger().at(Level.FINE).log("Successfully applied speed: %f", targetMultiplier);
-            return true;
+    /**
+     * Pushes the dilation to a world, capped by the load governor before it reaches the server.
+     */
+    private CompletableFuture<Void> applySpeed(World world, float requestedMultiplier) {
+        return applySpeed(world, requestedMultiplier, ALWAYS_CURRENT);
+    }
+
+    /**
+     * Like {@link #applySpeed(World, float)}, but the world drops the value if {@code current} no longer holds when
+     * it is applied.
+     */
+    private CompletableFuture<Void> applySpeed(World world, float requestedMultiplier, BooleanSupplier current) {
+        return applyDilation(world, requestedMultiplier, governor.getEffectiveSpeed(world.getName(), requestedMultiplier), current);
+    }
+
+    private CompletableFuture<Void> applyDilation(World world, float requestedMultiplier, float targetMultiplier) {
+        return applyDilation(world, requestedMultiplier, targetMultiplier, ALWAYS_CURRENT);
+    }
+
+    /**
+     * Pushes an exact dilation to a world, unless {@code current} no longer holds when the world applies it. If the
+     * current applier fails, this one call falls back to command dispatch; the current applier stays installed for
+     * the next change.
+     */
+    private CompletableFuture<Void> applyDilation(World world, float requestedMultiplier, float targetMultiplier,
+                                                  BooleanSupplier current) {
+        DilationApplier applier = this.dilationApplier;
+        this.getLogger().at(Level.FINE).log("Applying speed %f (requested %f) to world '%s' via %s",
+            targetMultiplier, requestedMultiplier, world.getName(), applier.getName());
+
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> result = applyScoped(applier, world, targetMultiplier, current);
+        if (applier != fallbackApplier) {
+            result = result.exceptionallyCompose(error -> {
+                this.getLogger().at(Level.WARNING).withCause(unwrap(error)).log(
+                    "Dilation applier '%s' failed, retrying once via '%s'", applier.getName(), fallbackApplier.getName());
+                return applyScoped(fallbackApplier, world, targetMultiplier, current);
+            });
+        }
+
+        return result.whenComplete((applied, error) -> {
+            if (error != null) {
+                metrics.recordApply(System.nanoTime() - start, false);
+            } else if (applied) {
+                metrics.recordApply(System.nanoTime() - start, true);
+                speedService.publish(world.getName(), targetMultiplier);
+            } else {
+                this.getLogger().at(Level.FINE).log("Dropped superseded speed %f for world '%s'", targetMultiplier, world.getName());
+            }
+        }).thenAccept(applied -> { });
+    }
+
+    /**
+     * Applies a dilation, refusing it if the applier changes every world while another loaded world runs at a
+     * different dilation.
+     */
+    private CompletableFuture<Boolean> applyScoped(DilationApplier applier, World world, float targetMultiplier,
+                                                   BooleanSupplier current) {
+        if (!applier.isWorldScoped()) {
+            for (World other : Universe.get().getWorlds().values()) {
+                float running = speedService.getSpeed(other);
+                if (other != world && Float.floatToIntBits(running) != Float.floatToIntBits(targetMultiplier)) {
+                    this.getLogger().at(Level.SEVERE).log(
+                        "Refusing to apply speed %f to world '%s' via '%s': it would also change world '%s' (running at %f)",
+                        targetMultiplier, world.getName(), applier.getName(), other.getName(), running);
+                    notifications.notifyError("Failed to apply game speed! Check server logs.");
+                    return CompletableFuture.failedFuture(new IllegalStateException("Dilation applier '" + applier.getName()
+                        + "' cannot set per-world speeds, world '" + other.getName() + "' runs at a different speed"));
+                }
+            }
+        }
+        return applyWith(applier, world, targetMultiplier, current);
+    }
+
+    private static CompletableFuture<Boolean> applyWith(DilationApplier applier, World world, float targetMultiplier,
+                                                        BooleanSupplier current) {
+        try {
+            return applier.applyIf(world, targetMultiplier, current);
         } catch (Exception e) {
-            this.getLogger().at(Level.SEVERE).withCause(e).log("Failed to apply custom speed multiplier");
-            NotificationService.notifyError("Failed to apply game speed! Check server logs.");
-            return false;
+            return CompletableFuture.failedFuture(e);
         }
     }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by dependent future stages.
+     */
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 }
\ No newline at end of file
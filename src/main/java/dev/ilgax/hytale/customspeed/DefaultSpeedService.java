@@ -0,0 +1,100 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * {@link SpeedService} fed by the plugin with every dilation it applies.
+ * <p>
+ * Each world's dilation is a float held in an {@link AtomicInteger}, so a read is a map lookup plus one volatile
+ * read. Publishing swaps the value atomically and only notifies when it actually changed, so re-applying the same
+ * speed (e.g. a saved speed on world start) is silent. Listeners sit in a copy-on-write list: registering is rare
+ * and every notification iterates a snapshot without locking.
+ */
+public class DefaultSpeedService implements SpeedService {
+    private static final int NORMAL_SPEED_BITS = Float.floatToIntBits(SpeedConstants.NORMAL_SPEED);
+
+    private final Map<String, AtomicInteger> speeds = new ConcurrentHashMap<>();
+    private final List<Registration> listeners = new CopyOnWriteArrayList<>();
+    private final Consumer<Throwable> errorHandler;
+
+    /**
+     * @param errorHandler Receives exceptions thrown by listeners
+     */
+    public DefaultSpeedService(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public float getSpeed(String worldName) {
+        AtomicInteger bits = speeds.get(worldName);
+        return bits != null ? Float.intBitsToFloat(bits.get()) : SpeedConstants.NORMAL_SPEED;
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        listeners.add(new Registration(listener, null));
+    }
+
+    @Override
+    public void addListener(Listener listener, Executor executor) {
+        listeners.add(new Registration(listener, executor));
+    }
+
+    @Override
+    public boolean removeListener(Listener listener) {
+        return listeners.removeIf(registration -> registration.listener == listener);
+    }
+
+    /**
+     * Records a dilation the server accepted and notifies listeners if it differs from the previous one.
+     *
+     * @param worldName The world name
+     * @param speed The applied dilation
+     */
+    void publish(String worldName, float speed) {
+        int bits = Float.floatToIntBits(speed);
+        int previousBits = speeds.computeIfAbsent(worldName, name -> new AtomicInteger(NORMAL_SPEED_BITS)).getAndSet(bits);
+        if (previousBits == bits || listeners.isEmpty()) {
+            return;
+        }
+
+        float previous = Float.intBitsToFloat(previousBits);
+        for (Registration registration : listeners) {
+            if (registration.executor == null) {
+                notify(registration.listener, worldName, previous, speed);
+                continue;
+            }
+            try {
+                registration.executor.execute(() -> notify(registration.listener, worldName, previous, speed));
+            } catch (RejectedExecutionException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+
+    private void notify(Listener listener, String worldName, float previous, float speed) {
+        try {
+            listener.onSpeedChanged(worldName, previous, speed);
+        } catch (RuntimeException e) {
+            // A failing listener must not break the apply path or other listeners
+            errorHandler.accept(e);
+        }
+    }
+
+    private static final class Registration {
+        private final Listener listener;
+        private final Executor executor;
+
+        private Registration(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy for pushing a time dilation value into the server.
+ */
+public interface DilationApplier {
+    /**
+     * Applies the given time dilation to a world.
+     *
+     * @param world The world to apply the dilation to
+     * @param multiplier The time dilation to apply
+     * @return Future completed once the server has accepted the value
+     */
+    CompletableFuture<Void> apply(World world, float multiplier);
+
+    /**
+     * Applies the given time dilation unless a newer change superseded it by the time it is applied.
+     * The default checks when the value is handed over; world-scoped appliers check on the world thread, right
+     * before the value is written, so a value queued behind a newer change is dropped instead of overwriting it.
+     *
+     * @param world The world to apply the dilation to
+     * @param multiplier The time dilation to apply
+     * @param current Whether the value is still wanted
+     * @return Future completed with true once the server has accepted the value, or false if it was dropped
+     */
+    default CompletableFuture<Boolean> applyIf(World world, float multiplier, BooleanSupplier current) {
+        if (!current.getAsBoolean()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return apply(world, multiplier).thenApply(ignored -> true);
+    }
+
+    /**
+     * @return Short name used in logs
+     */
+    String getName();
+
+    /**
+     * @return false if the applier changes the dilation of every world, whichever world it is given
+     */
+    default boolean isWorldScoped() {
+        return true;
+    }
+}
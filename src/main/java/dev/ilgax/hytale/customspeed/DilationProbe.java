@@ -0,0 +1,278 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the highest dilation a world can sustain on this host.
+ * <p>
+ * A probe walks up a ladder of speeds. Every step is applied, held for a warm-up so the world settles at the new
+ * rate, then held for a measurement window with a fresh tick window from the {@link TickMonitor}. The probe stops at
+ * the first step whose {@link SpeedConstants#GOVERNOR_PERCENTILE}th percentile tick time exceeds the budget; the step
+ * before it is the sustainable maximum. Steps are driven by timers on one background thread, nothing blocks while a
+ * step is held. Restoring the world's speed afterwards is up to the caller: a step still queued for the world when
+ * the probe's future completes is dropped on the world thread, so it cannot land after the restore.
+ */
+public class DilationProbe {
+    private final TickMonitor tickMonitor;
+    private final ConditionalApplier applier;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    /**
+     * @param tickMonitor Source of tick times
+     * @param applier Applies a dilation to a world as is, without bounds or governor cap
+     */
+    public DilationProbe(TickMonitor tickMonitor, ConditionalApplier applier) {
+        this.tickMonitor = tickMonitor;
+        this.applier = applier;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts probing a world.
+     *
+     * @param world The world to probe
+     * @param ladder Speeds to try, ascending
+     * @param warmupMs How long each step is held before measuring
+     * @param measureMs How long each step is measured
+     * @param budgetMs Tick time budget a step must stay within
+     * @param progress Receives every measured step
+     * @return Future completed with the report, or exceptionally if a probe of the world is already running or an
+     *         apply failed
+     */
+    public CompletableFuture<Report> start(World world, float[] ladder, long warmupMs, long measureMs, float budgetMs,
+                                           Consumer<Step> progress) {
+        Run run = new Run(world, ladder, warmupMs, measureMs, budgetMs, progress);
+        if (runs.putIfAbsent(world.getName(), run) != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A probe of world '" + world.getName() + "' is already running"));
+        }
+        run.result.whenComplete((report, error) -> runs.remove(world.getName(), run));
+        executor.execute(() -> run.step(0));
+        return run.result;
+    }
+
+    /**
+     * Stops a running probe. Its future completes with the steps measured so far.
+     *
+     * @param worldName The world name
+     * @return true if a probe was running
+     */
+    public boolean cancel(String worldName) {
+        Run run = runs.get(worldName);
+        if (run == null) {
+            return false;
+        }
+        run.cancelled = true;
+        executor.execute(run::finishIfCancelled);
+        return true;
+    }
+
+    public boolean isRunning(String worldName) {
+        return runs.containsKey(worldName);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Run run : runs.values()) {
+            run.result.completeExceptionally(new CancellationException("Plugin is shutting down"));
+        }
+    }
+
+    private final class Run {
+        private final World world;
+        private final float[] ladder;
+        private final long warmupMs;
+        private final long measureMs;
+        private final float budgetMs;
+        private final Consumer<Step> progress;
+        private final List<Step> steps = new ArrayList<>();
+        private final CompletableFuture<Report> result = new CompletableFuture<>();
+        private volatile boolean cancelled;
+
+        private Run(World world, float[] ladder, long warmupMs, long measureMs, float budgetMs, Consumer<Step> progress) {
+            this.world = world;
+            this.ladder = ladder;
+            this.warmupMs = warmupMs;
+            this.measureMs = measureMs;
+            this.budgetMs = budgetMs;
+            this.progress = progress;
+        }
+
+        private void step(int index) {
+            if (cancelled || result.isDone()) {
+                finishIfCancelled();
+                return;
+            }
+            if (index >= ladder.length) {
+                finish();
+                return;
+            }
+
+            applier.apply(world, ladder[index], this::isActive).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(CustomSpeedPlugin.unwrap(error));
+                    return;
+                }
+                executor.schedule(() -> measure(index), warmupMs, TimeUnit.MILLISECONDS);
+            });
+        }
+
+        private void measure(int index) {
+            TickStats stats = tickMonitor.getStats(world.getName());
+            if (stats != null) {
+                stats.clear();
+            }
+            executor.schedule(() -> record(index), measureMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void record(int index) {
+            if (result.isDone()) {
+                return;
+            }
+
+            TickStats stats = tickMonitor.getStats(world.getName());
+            int samples = stats != null ? stats.getSampleCount() : 0;
+            float p50 = stats != null ? stats.percentileMs(50.0f) : 0.0f;
+            float p95 = stats != null ? stats.percentileMs(SpeedConstants.GOVERNOR_PERCENTILE) : 0.0f;
+            float p99 = stats != null ? stats.percentileMs(99.0f) : 0.0f;
+            // A world that barely ticked in the window did not sustain the step either
+            boolean sustained = samples >= SpeedConstants.GOVERNOR_MIN_SAMPLES && p95 <= budgetMs;
+
+            Step step = new Step(ladder[index], p50, p95, p99, samples, sustained);
+            steps.add(step);
+            progress.accept(step);
+
+            if (sustained) {
+                step(index + 1);
+            } else {
+                finish();
+            }
+        }
+
+        /**
+         * @return false once the probe was cancelled or finished; checked on the world thread before a step lands
+         */
+        private boolean isActive() {
+            return !cancelled && !result.isDone();
+        }
+
+        private void finishIfCancelled() {
+            if (cancelled) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            float ceiling = 0.0f;
+            for (Step step : steps) {
+                if (!step.isSustained()) {
+                    break;
+                }
+                ceiling = step.getSpeed();
+            }
+            result.complete(new Report(Collections.unmodifiableList(new ArrayList<>(steps)), ceiling, budgetMs, cancelled));
+        }
+    }
+
+    /**
+     * Tick times measured at one speed.
+     */
+    public static final class Step {
+        private final float speed;
+        private final float p50Ms;
+        private final float p95Ms;
+        private final float p99Ms;
+        private final int samples;
+        private final boolean sustained;
+
+        private Step(float speed, float p50Ms, float p95Ms, float p99Ms, int samples, boolean sustained) {
+            this.speed = speed;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+            this.samples = samples;
+            this.sustained = sustained;
+        }
+
+        public float getSpeed() {
+            return speed;
+        }
+
+        public float getP50Ms() {
+            return p50Ms;
+        }
+
+        public float getP95Ms() {
+            return p95Ms;
+        }
+
+        public float getP99Ms() {
+            return p99Ms;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        /**
+         * @return true if the world stayed within the tick budget at this speed
+         */
+        public boolean isSustained() {
+            return sustained;
+        }
+    }
+
+    /**
+     * Outcome of a probe.
+     */
+    public static final class Report {
+        private final List<Step> steps;
+        private final float ceiling;
+        private final float budgetMs;
+        private final boolean cancelled;
+
+        private Report(List<Step> steps, float ceiling, float budgetMs, boolean cancelled) {
+            this.steps = steps;
+            this.ceiling = ceiling;
+            this.budgetMs = budgetMs;
+            this.cancelled = cancelled;
+        }
+
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return The highest sustained speed, or 0 if not even the first step was sustained
+         */
+        public float getCeiling() {
+            return ceiling;
+        }
+
+        public float getBudgetMs() {
+            return budgetMs;
+        }
+
+        /**
+         * @return true if the probe was cancelled; the ceiling then only covers the steps measured
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
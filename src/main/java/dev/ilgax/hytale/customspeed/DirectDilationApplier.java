@@ -0,0 +1,33 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes the time dilation straight into the world's time state on that world's own thread,
+ * skipping command building, parsing and permission checks.
+ */
+public class DirectDilationApplier implements DilationApplier {
+    @Override
+    public CompletableFuture<Void> apply(World world, float multiplier) {
+        return CompletableFuture.runAsync(
+            () -> World.setTimeDilation(multiplier, world.getEntityStore().getStore()), world);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> applyIf(World world, float multiplier, BooleanSupplier current) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!current.getAsBoolean()) {
+                return false;
+            }
+            World.setTimeDilation(multiplier, world.getEntityStore().getStore());
+            return true;
+        }, world);
+    }
+
+    @Override
+    public String getName() {
+        return "direct";
+    }
+}
@@ -0,0 +1,59 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.UUID;
+
+/**
+ * One applied speed change as stored in the {@link SpeedJournal}.
+ */
+public final class JournalRecord {
+    private final long timestampMillis;
+    private final String world;
+    private final int oldHundredths;
+    private final int newHundredths;
+    private final UUID actor;
+    private final ChangeSource source;
+
+    /**
+     * @param timestampMillis When the change was applied (epoch milliseconds)
+     * @param world The world name
+     * @param oldHundredths Speed before the change
+     * @param newHundredths Speed after the change
+     * @param actor Player who made the change, or null for the server
+     * @param source What triggered the change
+     */
+    public JournalRecord(long timestampMillis, String world, int oldHundredths, int newHundredths, UUID actor, ChangeSource source) {
+        this.timestampMillis = timestampMillis;
+        this.world = world;
+        this.oldHundredths = oldHundredths;
+        this.newHundredths = newHundredths;
+        this.actor = actor;
+        this.source = source;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public int getOldHundredths() {
+        return oldHundredths;
+    }
+
+    public int getNewHundredths() {
+        return newHundredths;
+    }
+
+    /**
+     * @return The player who made the change, or null if the server did
+     */
+    public UUID getActor() {
+        return actor;
+    }
+
+    public ChangeSource getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. Recording a sample is a bucket search over a constant array plus two atomic
+ * increments, with no allocation.
+ */
+public class LatencyHistogram {
+    // Bucket upper bounds in microseconds; the last bucket catches everything above
+    private static final long[] BOUNDS_MICROS = {
+        50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 5_000_000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * @param nanos Duration of one sample in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls into. A percentile in the overflow bucket is
+     * reported as the last bound, which is then a lower bound; see {@link #formatPercentile(float)}.
+     *
+     * @param percentile Percentile in [0, 100]
+     * @return Estimated latency in milliseconds, or 0 if nothing was recorded
+     */
+    public float percentileMs(float percentile) {
+        int bucket = percentileBucket(percentile);
+        if (bucket < 0) {
+            return 0.0f;
+        }
+        return BOUNDS_MICROS[Math.min(bucket, BOUNDS_MICROS.length - 1)] / 1_000.0f;
+    }
+
+    /**
+     * Formats a percentile for display, e.g. {@code "<= 2.5 ms"}, or {@code "> 5000.0 ms"} if it falls above the
+     * last bucket bound.
+     *
+     * @param percentile Percentile in [0, 100]
+     * @return The formatted estimate
+     */
+    public String formatPercentile(float percentile) {
+        String prefix = percentileBucket(percentile) == BOUNDS_MICROS.length ? "> " : "<= ";
+        return prefix + percentileMs(percentile) + " ms";
+    }
+
+    /**
+     * @return Index of the bucket the percentile falls into, {@code BOUNDS_MICROS.length} for the overflow bucket,
+     *         or -1 if nothing was recorded
+     */
+    private int percentileBucket(float percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100.0f * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return BOUNDS_MICROS.length;
+    }
+
+    /**
+     * Appends the histogram in Prometheus text exposition format.
+     *
+     * @param out Target buffer
+     * @param name Metric name, without the {@code _bucket}/{@code _sum}/{@code _count} suffixes
+     * @param help Help text
+     */
+    public void appendPrometheus(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            cumulative += buckets.get(i);
+            out.append(name).append("_bucket{le=\"").append(BOUNDS_MICROS[i] / 1_000_000.0).append("\"} ")
+                .append(cumulative).append('\n');
+        }
+        cumulative += buckets.get(BOUNDS_MICROS.length);
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum ").append(sumNanos.sum() / 1_000_000_000.0).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+}
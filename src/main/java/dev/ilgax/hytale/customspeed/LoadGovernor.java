@@ -0,0 +1,134 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Opt-in feedback controller that keeps worlds within their tick budget by capping the effective dilation
+ * below the operator-requested speed while a world is overloaded, and lifting the cap again once headroom returns.
+ * <p>
+ * Every evaluation compares a high percentile of recent tick times with the budget and adjusts a per-world
+ * cap factor with an incremental PI step. A dead band around the budget keeps the cap from oscillating.
+ * The governor only takes away speed-up: the effective speed never drops below normal speed on its account.
+ */
+public class LoadGovernor {
+    private final SpeedConfig config;
+    private final TickMonitor tickMonitor;
+    private final BiFunction<World, Float, CompletableFuture<Void>> applier;
+    private final Predicate<String> isRamping;
+    private final Map<String, Control> controls = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param config Plugin config providing the requested speeds and governor settings
+     * @param tickMonitor Source of tick times
+     * @param applier Re-applies a world's requested speed so the current cap takes effect
+     * @param isRamping Tells whether a world is ramping, in which case the ramp picks up the cap itself, or driven by
+     *                  a job such as a time skip, which re-applies its speed on its own
+     */
+    public LoadGovernor(SpeedConfig config, TickMonitor tickMonitor,
+                        BiFunction<World, Float, CompletableFuture<Void>> applier, Predicate<String> isRamping) {
+        this.config = config;
+        this.tickMonitor = tickMonitor;
+        this.applier = applier;
+        this.isRamping = isRamping;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Governor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleAtFixedRate(this::evaluate, SpeedConstants.GOVERNOR_INTERVAL_MS,
+            SpeedConstants.GOVERNOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Computes the speed a world should actually run at.
+     *
+     * @param worldName The world name
+     * @param requested The operator-requested speed
+     * @return The requested speed, lowered if the world is currently over its tick budget
+     */
+    public float getEffectiveSpeed(String worldName, float requested) {
+        Control control = controls.get(worldName);
+        if (control == null || !config.isGovernorEnabled() || requested <= SpeedConstants.NORMAL_SPEED) {
+            return requested;
+        }
+        return Math.max(SpeedConstants.NORMAL_SPEED, requested * control.factor);
+    }
+
+    private void evaluate() {
+        if (!config.isGovernorEnabled()) {
+            releaseAll();
+            return;
+        }
+
+        float budgetMs = config.getTickBudgetMs();
+        for (World world : Universe.get().getWorlds().values()) {
+            String worldName = world.getName();
+            TickStats stats = tickMonitor.getStats(worldName);
+            if (stats == null || stats.getSampleCount() < SpeedConstants.GOVERNOR_MIN_SAMPLES) {
+                continue;
+            }
+
+            Control control = controls.computeIfAbsent(worldName, name -> new Control());
+            float requested = config.getWorldState(worldName).getCurrentSpeed();
+            int before = SpeedUnits.toHundredths(getEffectiveSpeed(worldName, requested));
+
+            control.update(stats.percentileMs(SpeedConstants.GOVERNOR_PERCENTILE), budgetMs);
+
+            int after = SpeedUnits.toHundredths(getEffectiveSpeed(worldName, requested));
+            if (before != after && !isRamping.test(worldName)) {
+                applier.apply(world, requested);
+            }
+        }
+    }
+
+    /**
+     * Drops all caps after the governor was disabled and restores the requested speeds.
+     */
+    private void releaseAll() {
+        if (controls.isEmpty()) {
+            return;
+        }
+        for (String worldName : controls.keySet()) {
+            controls.remove(worldName);
+            World world = Universe.get().getWorld(worldName);
+            if (world != null && !isRamping.test(worldName)) {
+                applier.apply(world, config.getWorldState(worldName).getCurrentSpeed());
+            }
+        }
+    }
+
+    private static final class Control {
+        // Fraction of the requested speed the world may run at; only touched by the governor thread
+        private volatile float factor = 1.0f;
+        private float previousError;
+
+        private void update(float tickMs, float budgetMs) {
+            // Positive error means headroom, negative means the budget is exceeded
+            float error = (budgetMs - tickMs) / budgetMs;
+            if (Math.abs(error) < SpeedConstants.GOVERNOR_DEADBAND) {
+                error = 0.0f;
+            }
+
+            float step = SpeedConstants.GOVERNOR_KP * (error - previousError) + SpeedConstants.GOVERNOR_KI * error;
+            factor = Math.max(SpeedConstants.GOVERNOR_MIN_FACTOR, Math.min(1.0f, factor + step));
+            previousError = error;
+        }
+    }
+}
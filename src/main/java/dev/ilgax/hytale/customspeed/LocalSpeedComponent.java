@@ -0,0 +1,98 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.Component;
+import com.hypixel.hytale.component.ComponentType;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+/**
+ * Speed multiplier of a single entity, on top of its world's time dilation: the entity's own speed (set with
+ * {@code /speed self}) times the speed of the zone it stands in.
+ * <p>
+ * Entities carrying this component share an archetype, so the {@link LocalSpeedSystem} walks them as dense chunks.
+ * Speeds are held in hundredths like {@link SpeedState}.
+ */
+public class LocalSpeedComponent implements Component<EntityStore> {
+    private static ComponentType<EntityStore, LocalSpeedComponent> componentType;
+
+    private int speedHundredths = SpeedUnits.NORMAL_HUNDREDTHS;
+    // Speed last pushed to the entity's movement settings; -1 until the system has applied it once
+    private int appliedHundredths = -1;
+
+    // Speed of the zone the entity is in, and the grid cell it was found in so unchanged cells can be skipped
+    private int zoneHundredths = SpeedUnits.NORMAL_HUNDREDTHS;
+    private ZoneGrid zoneGrid;
+    private long zoneCellKey;
+    private boolean zoneCellUniform;
+
+    public LocalSpeedComponent() {
+    }
+
+    public LocalSpeedComponent(int speedHundredths) {
+        this.speedHundredths = speedHundredths;
+    }
+
+    public static ComponentType<EntityStore, LocalSpeedComponent> getComponentType() {
+        return componentType;
+    }
+
+    static void setComponentType(ComponentType<EntityStore, LocalSpeedComponent> componentType) {
+        LocalSpeedComponent.componentType = componentType;
+    }
+
+    public int getSpeedHundredths() {
+        return speedHundredths;
+    }
+
+    public void setSpeedHundredths(int speedHundredths) {
+        this.speedHundredths = speedHundredths;
+    }
+
+    public float getSpeed() {
+        return SpeedUnits.toSpeed(speedHundredths);
+    }
+
+    public int getZoneHundredths() {
+        return zoneHundredths;
+    }
+
+    /**
+     * @return The entity's own speed times its zone's speed, on the hundredths lattice
+     */
+    public int getEffectiveHundredths() {
+        return SpeedUnits.clampToLattice((speedHundredths * zoneHundredths + SpeedUnits.NORMAL_HUNDREDTHS / 2) / SpeedUnits.NORMAL_HUNDREDTHS);
+    }
+
+    /**
+     * @return true if neither the entity's own speed nor a zone modifies it
+     */
+    public boolean isNormal() {
+        return speedHundredths == SpeedUnits.NORMAL_HUNDREDTHS && zoneHundredths == SpeedUnits.NORMAL_HUNDREDTHS;
+    }
+
+    boolean isInUniformCell(ZoneGrid grid, long cellKey) {
+        return zoneCellUniform && zoneGrid == grid && zoneCellKey == cellKey;
+    }
+
+    void setZone(int zoneHundredths, ZoneGrid grid, long cellKey, boolean uniform) {
+        this.zoneHundredths = zoneHundredths;
+        this.zoneGrid = grid;
+        this.zoneCellKey = cellKey;
+        this.zoneCellUniform = uniform;
+    }
+
+    int getAppliedHundredths() {
+        return appliedHundredths;
+    }
+
+    void setAppliedHundredths(int appliedHundredths) {
+        this.appliedHundredths = appliedHundredths;
+    }
+
+    @Override
+    public LocalSpeedComponent clone() {
+        LocalSpeedComponent copy = new LocalSpeedComponent(speedHundredths);
+        copy.appliedHundredths = appliedHundredths;
+        copy.setZone(zoneHundredths, zoneGrid, zoneCellKey, zoneCellUniform);
+        return copy;
+    }
+}
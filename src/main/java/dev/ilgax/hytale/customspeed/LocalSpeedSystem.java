@@ -0,0 +1,55 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.tick.EntityTickingSystem;
+import com.hypixel.hytale.protocol.MovementSettings;
+import com.hypixel.hytale.server.core.entity.entities.player.movement.MovementManager;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+/**
+ * Scales the movement of entities carrying a {@link LocalSpeedComponent}.
+ * <p>
+ * The per-tick cost of an entity whose speed did not change is one integer comparison; movement settings are only
+ * rewritten (and sent to the player's client) when the multiplier changes. An entity set back to normal speed
+ * and outside every zone gets its default settings restored and loses the component.
+ */
+public class LocalSpeedSystem extends EntityTickingSystem<EntityStore> {
+    private final Query<EntityStore> query = Query.and(LocalSpeedComponent.getComponentType(), MovementManager.getComponentType());
+
+    @Override
+    public Query<EntityStore> getQuery() {
+        return query;
+    }
+
+    @Override
+    public void tick(float dt, int index, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        LocalSpeedComponent localSpeed = chunk.getComponent(index, LocalSpeedComponent.getComponentType());
+        int speed = localSpeed.getEffectiveHundredths();
+        if (speed == localSpeed.getAppliedHundredths()) {
+            return;
+        }
+
+        MovementManager movement = chunk.getComponent(index, MovementManager.getComponentType());
+        MovementSettings defaults = movement.getDefaultSettings();
+        MovementSettings settings = movement.getSettings();
+        float multiplier = SpeedUnits.toSpeed(speed);
+        settings.baseSpeed = defaults.baseSpeed * multiplier;
+        settings.acceleration = defaults.acceleration * multiplier;
+        settings.climbSpeed = defaults.climbSpeed * multiplier;
+
+        // Players predict their own movement, so their client needs the new settings
+        PlayerRef player = chunk.getComponent(index, PlayerRef.getComponentType());
+        if (player != null) {
+            movement.update(player.getPacketHandler());
+        }
+
+        localSpeed.setAppliedHundredths(speed);
+        if (localSpeed.isNormal()) {
+            commandBuffer.removeComponent(chunk.getReferenceTo(index), LocalSpeedComponent.getComponentType());
+        }
+    }
+}
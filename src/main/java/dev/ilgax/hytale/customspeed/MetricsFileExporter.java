@@ -0,0 +1,55 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Periodically writes the Prometheus text dump to a file, e.g. for node_exporter's textfile collector.
+ * The file is replaced atomically so a scraper never reads a half-written dump.
+ */
+public class MetricsFileExporter {
+    private final Path file;
+    private final Supplier<String> dump;
+    private final Consumer<Exception> onError;
+    private final ScheduledExecutorService executor;
+
+    public MetricsFileExporter(Path file, Supplier<String> dump, Consumer<Exception> onError) {
+        this.file = file;
+        this.dump = dump;
+        this.onError = onError;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        executor.scheduleAtFixedRate(this::export, SpeedConstants.METRICS_EXPORT_INTERVAL_MS,
+            SpeedConstants.METRICS_EXPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void export() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(temp, dump.get().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // A throwing task would be cancelled by the executor without a trace
+            onError.accept(e);
+        }
+    }
+}
@@ -1,9 +1,55 @@
 package dev.ilgax.hytale.customspeed;
 
 import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.util.NotificationUtil;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Delivers speed notifications to players.
+ * <p>
+ * Speed changes of a world are coalesced within a short window and only the last value is sent. Errors and
+ * warnings are rate-limited per message. Delivery is fanned out per world and runs on each world's own thread,
+ * reaching only the players selected by the configured {@link NotificationTarget}.
+ * <p>
+ * Messages are cached per world, action and speed on the hundredths lattice, in blocks allocated on first use, so a
+ * delivery of a speed seen before allocates no message. A world's cached messages and pending change are dropped when
+ * the world is removed.
+ */
 public class NotificationService {
+    // Display strings ("2.0x (200%)") for every speed on the lattice, built on first use
+    private static final AtomicReferenceArray<String> SPEED_DISPLAY = new AtomicReferenceArray<>(SpeedUnits.MAX_HUNDREDTHS + 1);
+
+    private final SpeedConfig config;
+    private final SpeedMetrics metrics;
+    private final ScheduledExecutorService executor;
+    // Present only while a delivery is scheduled for the world
+    private final Map<String, PendingChange> pendingChanges = new ConcurrentHashMap<>();
+    private final Map<String, WorldMessages> worldMessages = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastAlertNanos = new ConcurrentHashMap<>();
+
+    private final AtomicLong coalescedNotifications = new AtomicLong();
+    private final AtomicLong suppressedAlerts = new AtomicLong();
+
+    public NotificationService(SpeedConfig config, SpeedMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Notifications");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Formats a speed value as a percentage string.
      *
@@ -15,6 +61,26 @@ public class NotificationService {
         return percent + "%";
     }
 
+    /**
+     * Formats a speed as multiplier and percentage, e.g. "2.0x (200%)". Strings are cached per hundredth.
+     *
+     * @param hundredths The speed in hundredths
+     * @return Formatted speed string
+     */
+    public static String formatSpeed(int hundredths) {
+        if (hundredths < 0 || hundredths > SpeedUnits.MAX_HUNDREDTHS) {
+            return SpeedUnits.toSpeed(hundredths) + "x (" + hundredths + "%)";
+        }
+
+        String display = SPEED_DISPLAY.get(hundredths);
+        if (display == null) {
+            // Racing threads build identical strings, so a lost update is harmless
+            display = SpeedUnits.toSpeed(hundredths) + "x (" + hundredths + "%)";
+            SPEED_DISPLAY.set(hundredths, display);
+        }
+        return display;
+    }
+
     /**
      * Formats a complete speed message with multiplier and percentage.
      *
@@ -23,35 +89,214 @@ public class NotificationService {
      * @return Formatted message string
      */
     public static String formatSpeedMessage(float speed, String prefix) {
-        return prefix + " " + speed + "x (" + formatSpeedAsPercentage(speed) + ")";
+        return prefix + " " + formatSpeed(SpeedUnits.toHundredths(speed));
+    }
+
+    /**
+     * @param worldName The world name
+     * @param hundredths The world's speed in hundredths
+     * @return The cached "Current game speed in ..." message for the speed
+     */
+    public Message getCurrentSpeedMessage(String worldName, int hundredths) {
+        return messagesOf(worldName).current.get(hundredths);
     }
 
     /**
-     * Sends a speed change notification to all players.
+     * Queues a speed change notification for a world. Changes arriving within the coalescing window
+     * replace each other, so players only see the final speed.
      *
-     * @param speed The new speed value
+     * @param world The world whose speed changed
+     * @param hundredths The new speed in hundredths
      * @param action The action performed (e.g., "set to", "toggled to")
      */
-    public static void notifySpeedChange(float speed, String action) {
-        String message = formatSpeedMessage(speed, "Game Speed " + action);
-        NotificationUtil.sendNotificationToUniverse(Message.raw(message));
+    public void notifySpeedChange(World world, int hundredths, String action) {
+        String worldName = world.getName();
+        PendingChange change = pendingChanges.compute(worldName, (name, pending) -> {
+            PendingChange updated = pending != null ? pending : new PendingChange(world);
+            updated.hundredths = hundredths;
+            updated.action = action;
+            return updated;
+        });
+
+        if (change.scheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> deliverSpeedChange(worldName),
+                SpeedConstants.NOTIFICATION_COALESCE_MS, TimeUnit.MILLISECONDS);
+        } else {
+            coalescedNotifications.incrementAndGet();
+        }
     }
 
     /**
-     * Sends an error notification to all players.
+     * Drops the pending change of a removed world without delivering it, and the world's cached messages.
+     *
+     * @param worldName The world name
+     */
+    public void removeWorld(String worldName) {
+        pendingChanges.remove(worldName);
+        worldMessages.remove(worldName);
+    }
+
+    /**
+     * Sends an error notification, unless the same error was sent recently.
      *
      * @param errorMessage The error message to display
      */
-    public static void notifyError(String errorMessage) {
-        NotificationUtil.sendNotificationToUniverse(Message.raw(errorMessage));
+    public void notifyError(String errorMessage) {
+        sendAlert(errorMessage);
     }
 
     /**
-     * Sends a warning notification to all players.
+     * Sends a warning notification, unless the same warning was sent recently.
      *
      * @param warningMessage The warning message to display
      */
-    public static void notifyWarning(String warningMessage) {
-        NotificationUtil.sendNotificationToUniverse(Message.raw(warningMessage));
+    public void notifyWarning(String warningMessage) {
+        sendAlert(warningMessage);
+    }
+
+    /**
+     * @return Number of speed change notifications merged into a later one
+     */
+    public long getCoalescedNotifications() {
+        return coalescedNotifications.get();
+    }
+
+    /**
+     * @return Number of errors and warnings dropped by rate limiting
+     */
+    public long getSuppressedAlerts() {
+        return suppressedAlerts.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void deliverSpeedChange(String worldName) {
+        // Changes arriving from here on open a new window
+        PendingChange change = pendingChanges.remove(worldName);
+        if (change == null) {
+            return;
+        }
+
+        Message message = messagesOf(worldName).forAction(change.action).get(change.hundredths);
+        if (config.getNotificationTarget() == NotificationTarget.WORLD) {
+            deliver(change.world, message);
+        } else {
+            deliverToAllWorlds(message);
+        }
+    }
+
+    private WorldMessages messagesOf(String worldName) {
+        WorldMessages messages = worldMessages.get(worldName);
+        return messages != null ? messages : worldMessages.computeIfAbsent(worldName, WorldMessages::new);
+    }
+
+    private void sendAlert(String text) {
+        long now = System.nanoTime();
+        long minInterval = TimeUnit.MILLISECONDS.toNanos(SpeedConstants.ALERT_MIN_INTERVAL_MS);
+        Long last = lastAlertNanos.get(text);
+
+        if (last != null && now - last < minInterval) {
+            suppressedAlerts.incrementAndGet();
+            return;
+        }
+        // Another thread may have sent the same alert in the meantime
+        boolean claimed = last == null ? lastAlertNanos.putIfAbsent(text, now) == null : lastAlertNanos.replace(text, last, now);
+        if (!claimed) {
+            suppressedAlerts.incrementAndGet();
+            return;
+        }
+
+        deliverToAllWorlds(Message.raw(text));
+    }
+
+    private void deliverToAllWorlds(Message message) {
+        for (World world : Universe.get().getWorlds().values()) {
+            deliver(world, message);
+        }
+    }
+
+    /**
+     * Sends a message to the targeted players of one world, on that world's thread.
+     */
+    private void deliver(World world, Message message) {
+        world.execute(() -> {
+            long start = System.nanoTime();
+            boolean optInOnly = config.getNotificationTarget() == NotificationTarget.OPT_IN;
+            for (PlayerRef player : world.getPlayerRefs()) {
+                if (!optInOnly || config.isNotificationOptIn(player.getUuid())) {
+                    NotificationUtil.sendNotification(player.getPacketHandler(), message);
+                }
+            }
+            metrics.recordNotification(System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Cached messages of one world.
+     */
+    private static final class WorldMessages {
+        private final String worldName;
+        private final MessageTable current;
+        private final Map<String, MessageTable> actions = new ConcurrentHashMap<>();
+
+        private WorldMessages(String worldName) {
+            this.worldName = worldName;
+            this.current = new MessageTable("Current game speed in " + worldName + ": ");
+        }
+
+        private MessageTable forAction(String action) {
+            MessageTable table = actions.get(action);
+            return table != null ? table : actions.computeIfAbsent(action, key -> new MessageTable("Game Speed in " + worldName + " " + key + " "));
+        }
+    }
+
+    /**
+     * Messages sharing one prefix, per speed on the lattice. Blocks of {@link #BLOCK_SIZE} speeds are allocated on
+     * first use, so a table only grows with the speeds actually shown.
+     */
+    private static final class MessageTable {
+        private static final int BLOCK_SIZE = 100;
+
+        private final String prefix;
+        private final AtomicReferenceArray<AtomicReferenceArray<Message>> blocks =
+            new AtomicReferenceArray<>(SpeedUnits.MAX_HUNDREDTHS / BLOCK_SIZE + 1);
+
+        private MessageTable(String prefix) {
+            this.prefix = prefix;
+        }
+
+        private Message get(int hundredths) {
+            int index = SpeedUnits.clampToLattice(hundredths);
+            AtomicReferenceArray<Message> block = blocks.get(index / BLOCK_SIZE);
+            if (block == null) {
+                blocks.compareAndSet(index / BLOCK_SIZE, null, new AtomicReferenceArray<>(BLOCK_SIZE));
+                block = blocks.get(index / BLOCK_SIZE);
+            }
+
+            Message message = block.get(index % BLOCK_SIZE);
+            if (message == null) {
+                // Racing threads build equal messages, so a lost update is harmless
+                message = Message.raw(prefix + formatSpeed(index));
+                block.set(index % BLOCK_SIZE, message);
+            }
+            return message;
+        }
+    }
+
+    /**
+     * Latest undelivered change of one world within its coalescing window. Speed and action are only written and
+     * read under the map's lock for the world.
+     */
+    private static final class PendingChange {
+        private final World world;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private int hundredths;
+        private String action;
+
+        private PendingChange(World world) {
+            this.world = world;
+        }
     }
 }
@@ -0,0 +1,41 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.Locale;
+
+/**
+ * Who receives speed notifications.
+ */
+public enum NotificationTarget {
+    /** Players in the world whose speed changed. Errors go to every world. */
+    WORLD,
+    /** Only players who opted in with {@code /speed notify on}, in any world. */
+    OPT_IN,
+    /** Every player on the server. */
+    UNIVERSE;
+
+    /**
+     * @return The name used for this target in the config file (e.g. "OptIn")
+     */
+    public String getConfigName() {
+        StringBuilder name = new StringBuilder();
+        for (String part : name().split("_")) {
+            name.append(part.charAt(0)).append(part.substring(1).toLowerCase(Locale.ROOT));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Looks up a target by its config name, ignoring case.
+     *
+     * @param name Target name (e.g. "World", "OptIn")
+     * @return The matching target, or {@link #WORLD} if the name is unknown
+     */
+    public static NotificationTarget fromName(String name) {
+        for (NotificationTarget target : values()) {
+            if (target.name().replace("_", "").equalsIgnoreCase(name.replace("_", ""))) {
+                return target;
+            }
+        }
+        return WORLD;
+    }
+}
@@ -0,0 +1,242 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Switches speeds according to the {@link SpeedProfile}s in the config.
+ * <p>
+ * Every profile has one timer on a shared {@link TimerWheel} set to its next occurrence. When it fires, the
+ * player-count conditions are checked (a world's players are counted on that world's thread), the transition is
+ * handed to the plugin (which validates it like any other speed change) and the timer is re-armed for the following
+ * occurrence.
+ */
+public class ProfileScheduler {
+    private final SpeedConfig config;
+    private final Function<SpeedProfile, CompletableFuture<Void>> transition;
+    private final BiConsumer<String, Throwable> errorHandler;
+    private final TimerWheel wheel;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Keyed by lower-case profile name, in config order; guarded by this
+    private final Map<String, ScheduledProfile> profiles = new LinkedHashMap<>();
+
+    /**
+     * @param config The plugin config holding the profiles
+     * @param transition Applies a profile's speed
+     * @param errorHandler Receives profiles that could not be scheduled, with the reason
+     */
+    public ProfileScheduler(SpeedConfig config, Function<SpeedProfile, CompletableFuture<Void>> transition,
+                            BiConsumer<String, Throwable> errorHandler) {
+        this.config = config;
+        this.transition = transition;
+        this.errorHandler = errorHandler;
+        this.wheel = new TimerWheel(SpeedConstants.TIMER_WHEEL_TICK_MS, SpeedConstants.TIMER_WHEEL_SLOTS);
+    }
+
+    /**
+     * (Re)schedules every profile from the config, dropping pending skips.
+     */
+    public synchronized void reload() {
+        for (ScheduledProfile scheduled : profiles.values()) {
+            scheduled.cancel();
+        }
+        profiles.clear();
+
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        for (SpeedProfile profile : config.getProfiles()) {
+            try {
+                ScheduledProfile scheduled = new ScheduledProfile(profile, ScheduleExpression.parse(profile.getSchedule()));
+                ZonedDateTime first = scheduled.schedule.next(now);
+                if (profiles.putIfAbsent(scheduled.key(), scheduled) != null) {
+                    throw new IllegalArgumentException("Duplicate profile name");
+                }
+                arm(scheduled, first);
+            } catch (RuntimeException e) {
+                errorHandler.accept(profile.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * @return Snapshot of every scheduled profile with its next occurrence, soonest first
+     */
+    public synchronized List<Occurrence> getOccurrences() {
+        List<Occurrence> occurrences = new ArrayList<>(profiles.size());
+        for (ScheduledProfile scheduled : profiles.values()) {
+            occurrences.add(new Occurrence(scheduled.profile, scheduled.next, scheduled.skipNext));
+        }
+        occurrences.sort(Comparator.comparing(Occurrence::getTime));
+        return occurrences;
+    }
+
+    /**
+     * @return The next transition that will actually run, or null if there is none
+     */
+    public synchronized Occurrence getNext() {
+        for (Occurrence occurrence : getOccurrences()) {
+            if (!occurrence.isSkipped()) {
+                return occurrence;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips the next occurrence of a profile, or of the soonest profile if no name is given.
+     *
+     * @param name The profile name (case-insensitive), or null
+     * @return The skipped occurrence, or null if there was nothing to skip
+     */
+    public synchronized Occurrence skip(String name) {
+        ScheduledProfile target;
+        if (name != null) {
+            target = profiles.get(name.toLowerCase(Locale.ROOT));
+        } else {
+            Occurrence next = getNext();
+            target = next != null ? profiles.get(next.getProfile().getName().toLowerCase(Locale.ROOT)) : null;
+        }
+
+        if (target == null || target.skipNext) {
+            return null;
+        }
+        target.skipNext = true;
+        return new Occurrence(target.profile, target.next, true);
+    }
+
+    public void shutdown() {
+        wheel.shutdown();
+    }
+
+    private void arm(ScheduledProfile scheduled, ZonedDateTime time) {
+        scheduled.next = time;
+        long delayMs = Math.max(0L, Duration.between(ZonedDateTime.now(zone), time).toMillis());
+        scheduled.timer = wheel.schedule(() -> fire(scheduled, time), delayMs);
+    }
+
+    private void fire(ScheduledProfile scheduled, ZonedDateTime time) {
+        boolean skipped;
+        synchronized (this) {
+            // Stale timer of a profile removed by reload()
+            if (profiles.get(scheduled.key()) != scheduled || scheduled.next != time) {
+                return;
+            }
+
+            ZonedDateTime now = ZonedDateTime.now(zone);
+            if (now.isBefore(time)) {
+                // The wall clock was set back since the timer was armed
+                arm(scheduled, time);
+                return;
+            }
+
+            skipped = scheduled.skipNext;
+            scheduled.skipNext = false;
+            try {
+                arm(scheduled, scheduled.schedule.next(now));
+            } catch (RuntimeException e) {
+                errorHandler.accept(scheduled.profile.getName(), e);
+            }
+        }
+
+        if (skipped) {
+            return;
+        }
+
+        SpeedProfile profile = scheduled.profile;
+        try {
+            if (profile.getWorld().isEmpty()) {
+                transitionIfAccepted(profile, Universe.get().getPlayerCount());
+                return;
+            }
+            World world = Universe.get().getWorld(profile.getWorld());
+            if (world == null) {
+                transitionIfAccepted(profile, 0);
+                return;
+            }
+            // A world's player list belongs to its thread; count there and come back to the wheel thread
+            CompletableFuture.supplyAsync(() -> world.getPlayerRefs().size(), world).whenComplete((players, error) -> {
+                if (error != null) {
+                    errorHandler.accept(profile.getName(), CustomSpeedPlugin.unwrap(error));
+                } else {
+                    wheel.schedule(() -> transitionIfAccepted(profile, players), 0L);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Keep the wheel thread alive; the next occurrence is already armed
+            errorHandler.accept(profile.getName(), e);
+        }
+    }
+
+    private void transitionIfAccepted(SpeedProfile profile, int players) {
+        if (!profile.acceptsPlayerCount(players)) {
+            return;
+        }
+        try {
+            transition.apply(profile);
+        } catch (RuntimeException e) {
+            errorHandler.accept(profile.getName(), e);
+        }
+    }
+
+    private static final class ScheduledProfile {
+        private final SpeedProfile profile;
+        private final ScheduleExpression schedule;
+        private ZonedDateTime next;
+        private TimerWheel.Timer timer;
+        private boolean skipNext;
+
+        private ScheduledProfile(SpeedProfile profile, ScheduleExpression schedule) {
+            this.profile = profile;
+            this.schedule = schedule;
+        }
+
+        private String key() {
+            return profile.getName().toLowerCase(Locale.ROOT);
+        }
+
+        private void cancel() {
+            if (timer != null) {
+                timer.cancel();
+            }
+        }
+    }
+
+    /**
+     * Upcoming transition of a profile.
+     */
+    public static final class Occurrence {
+        private final SpeedProfile profile;
+        private final ZonedDateTime time;
+        private final boolean skipped;
+
+        private Occurrence(SpeedProfile profile, ZonedDateTime time, boolean skipped) {
+            this.profile = profile;
+            this.time = time;
+            this.skipped = skipped;
+        }
+
+        public SpeedProfile getProfile() {
+            return profile;
+        }
+
+        public ZonedDateTime getTime() {
+            return time;
+        }
+
+        public boolean isSkipped() {
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.ilgax.hytale.customspeed;
+
+/**
+ * Easing curves used to interpolate speed ramps. Each maps ramp progress in [0, 1] to interpolation weight in [0, 1].
+ */
+public enum RampCurve {
+    LINEAR {
+        @Override
+        public float apply(float t) {
+            return t;
+        }
+    },
+    EASE_IN {
+        @Override
+        public float apply(float t) {
+            return t * t;
+        }
+    },
+    EASE_OUT {
+        @Override
+        public float apply(float t) {
+            return 1.0f - (1.0f - t) * (1.0f - t);
+        }
+    },
+    EASE_IN_OUT {
+        @Override
+        public float apply(float t) {
+            return t * t * (3.0f - 2.0f * t);
+        }
+    };
+
+    public abstract float apply(float t);
+
+    /**
+     * Looks up a curve by its config name, ignoring case.
+     *
+     * @param name Curve name (e.g. "Linear", "EASE_IN_OUT")
+     * @return The matching curve, or {@link #LINEAR} if the name is unknown
+     */
+    public static RampCurve fromName(String name) {
+        for (RampCurve curve : values()) {
+            if (curve.name().replace("_", "").equalsIgnoreCase(name.replace("_", ""))) {
+                return curve;
+            }
+        }
+        return LINEAR;
+    }
+}
@@ -0,0 +1,168 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time-of-day schedule of a speed profile.
+ * <p>
+ * Accepts either a daily time ({@code "22:00"}) or a five-field cron expression
+ * ({@code "minute hour day-of-month month day-of-week"}, e.g. {@code "0 22 * * 1-5"}). Fields support {@code *},
+ * numbers, ranges ({@code 1-5}), lists ({@code 1,3,5}) and steps ({@code 0-59/15}); day of week runs from 0 (Sunday)
+ * to 7 (Sunday again). As in cron, if both day fields are restricted a day matching either one qualifies.
+ */
+public final class ScheduleExpression {
+    // Upper bound for the search in next(); a valid expression always matches within this window
+    private static final int MAX_SEARCH_YEARS = 5;
+
+    private final String source;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private ScheduleExpression(String source, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek,
+                               boolean dayOfMonthRestricted, boolean dayOfWeekRestricted) {
+        this.source = source;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.dayOfMonthRestricted = dayOfMonthRestricted;
+        this.dayOfWeekRestricted = dayOfWeekRestricted;
+    }
+
+    /**
+     * Parses a schedule.
+     *
+     * @param expression {@code "HH:MM"} or a five-field cron expression
+     * @return The parsed schedule
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static ScheduleExpression parse(String expression) {
+        String trimmed = expression == null ? "" : expression.trim();
+        String cron = trimmed;
+
+        int colon = trimmed.indexOf(':');
+        if (colon > 0 && trimmed.indexOf(' ') < 0) {
+            // Daily shorthand "HH:MM"
+            cron = trimmed.substring(colon + 1) + " " + trimmed.substring(0, colon) + " * * *";
+        }
+
+        String[] fields = cron.split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Schedule must be HH:MM or a five-field cron expression: " + expression);
+        }
+
+        long daysOfWeek = parseField(fields[4], 0, 7);
+        if ((daysOfWeek & (1L << 7)) != 0) {
+            // 7 is an alias for Sunday
+            daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7);
+        }
+
+        return new ScheduleExpression(trimmed,
+            parseField(fields[0], 0, 59),
+            parseField(fields[1], 0, 23),
+            parseField(fields[2], 1, 31),
+            parseField(fields[3], 1, 12),
+            daysOfWeek,
+            !fields[2].equals("*"),
+            !fields[4].equals("*"));
+    }
+
+    /**
+     * Finds the first time strictly after {@code after} that matches the schedule, to the minute.
+     *
+     * @param after The reference time
+     * @return The next matching time in the same zone
+     * @throws IllegalStateException if the schedule never matches (e.g. February 31st)
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = after.plusYears(MAX_SEARCH_YEARS);
+
+        // Skip whole months, days and hours at a time; only the last step walks single minutes
+        while (time.isBefore(limit)) {
+            if (!isSet(months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!isSet(hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!isSet(minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalStateException("Schedule never matches: " + source);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean dayOfMonth = isSet(daysOfMonth, time.getDayOfMonth());
+        boolean dayOfWeek = isSet(daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static boolean isSet(long mask, int value) {
+        return (mask & (1L << value)) != 0;
+    }
+
+    private static long parseField(String field, int min, int max) {
+        long mask = 0L;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, field);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else if (part.indexOf('-') > 0) {
+                int dash = part.indexOf('-');
+                from = parseNumber(part.substring(0, dash), min, max, field);
+                to = parseNumber(part.substring(dash + 1), min, max, field);
+                if (from > to) {
+                    throw new IllegalArgumentException("Invalid range in schedule field: " + field);
+                }
+            } else {
+                from = parseNumber(part, min, max, field);
+                to = slash >= 0 ? max : from;
+            }
+
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int parseNumber(String text, int min, int max, String field) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Value " + value + " out of range " + min + "-" + max + " in schedule field: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in schedule field: " + field, e);
+        }
+    }
+}
@@ -2,19 +2,38 @@ package dev.ilgax.hytale.customspeed;
 
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.math.vector.Vector3d;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.FlagArg;
+import com.hypixel.hytale.server.core.command.system.arguments.system.OptionalArg;
 import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
 import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
 import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
+import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.Universe;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
 
 public class SpeedCommand extends AbstractPlayerCommand {
+    private static final DateTimeFormatter SCHEDULE_TIME_FORMAT = DateTimeFormatter.ofPattern("EEE HH:mm");
+    private static final DateTimeFormatter HISTORY_TIME_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm:ss");
+
     private final CustomSpeedPlugin plugin;
     private final RequiredArg<Float> multiplierArg;
+    private final OptionalArg<String> worldArg;
+    private final FlagArg allFlag;
+    private final OptionalArg<Float> overArg;
 
     public SpeedCommand(CustomSpeedPlugin plugin) {
         super("speed", "Adjusts the game speed dilation.");
@@ -35,9 +54,45 @@ public class SpeedCommand extends AbstractPlayerCommand {
         
         // Variant for /speed decrease (d)
         this.addSubCommand(new DecreaseSpeedSubCommand());
+
+        // Variant for /speed notify <on|off>
+        this.addSubCommand(new NotifySubCommand());
+
+        // Variant for /speed stats
+        this.addSubCommand(new StatsSubCommand());
+
+        // Variant for /speed schedule <list|next|skip> [profile]
+        this.addSubCommand(new ScheduleSubCommand());
+
+        // Variant for /speed history [n]
+        this.addSubCommand(new HistorySubCommand());
+
+        // Variant for /speed self <multiplier>
+        this.addSubCommand(new SelfSpeedSubCommand());
+
+        // Variant for /speed zone <add|remove|list> [name] [speed]
+        this.addSubCommand(new ZoneSubCommand());
+
+        // Variant for /speed probe <start|cancel> [--world] [--apply]
+        this.addSubCommand(new ProbeSubCommand());
+
+        // Variant for /speed freeze
+        this.addSubCommand(new FreezeSubCommand());
+
+        // Variant for /speed step [n|report]
+        this.addSubCommand(new StepSubCommand());
+
+        // Variant for /speed resume
+        this.addSubCommand(new ResumeSubCommand());
+
+        // Variant for /speed skip <duration|status|cancel>
+        this.addSubCommand(new SkipSubCommand());
         
         // Main usage: /speed <multiplier>
         this.multiplierArg = this.withRequiredArg("multiplier", "Speed multiplier (e.g. 0.5)", ArgTypes.FLOAT);
+        this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+        this.allFlag = this.withFlagArg("all", "Apply to every world");
+        this.overArg = this.withOptionalArg("over", "Ramp to the new speed over this many seconds", ArgTypes.FLOAT);
     }
 
     @Override
@@ -48,7 +103,86 @@ public class SpeedCommand extends AbstractPlayerCommand {
             context.sendMessage(Message.raw(error));
             return;
         }
-        plugin.setSpeedMultiplier(multiplier);
+
+        long rampMs = plugin.getDefaultRampMs();
+        if (context.provided(this.overArg)) {
+            float seconds = context.get(this.overArg);
+            if (seconds < 0 || seconds > SpeedConstants.MAX_RAMP_SECONDS) {
+                context.sendMessage(Message.raw("Ramp duration must be between 0 and " + SpeedConstants.MAX_RAMP_SECONDS + " seconds!"));
+                return;
+            }
+            rampMs = (long) (seconds * 1000.0f);
+        }
+
+        if (Boolean.TRUE.equals(context.get(this.allFlag))) {
+            plugin.setSpeedMultiplierForAll(multiplier, rampMs, playerRef.getUuid(), ChangeSource.COMMAND).exceptionally(error -> {
+                context.sendMessage(Message.raw("Failed to set speed: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+                return null;
+            });
+            return;
+        }
+
+        World target = resolveWorld(context, this.worldArg, world);
+        if (target != null) {
+            reportFailure(context, plugin.setSpeedMultiplier(target, multiplier, rampMs, playerRef.getUuid(), ChangeSource.COMMAND), "Failed to set speed: ");
+        }
+    }
+
+    /**
+     * Resolves the world a command targets: the {@code --world} argument if given, otherwise the caller's world.
+     *
+     * @return The target world, or null if the named world does not exist (the sender is told)
+     */
+    private static World resolveWorld(CommandContext context, OptionalArg<String> worldArg, World callerWorld) {
+        if (!context.provided(worldArg)) {
+            return callerWorld;
+        }
+
+        String worldName = context.get(worldArg);
+        World target = Universe.get().getWorld(worldName);
+        if (target == null) {
+            context.sendMessage(Message.raw("Unknown world: " + worldName));
+        }
+        return target;
+    }
+
+    /**
+     * Reports a failed speed change back to the sender once the pipeline completes, without blocking.
+     */
+    private static void reportFailure(CommandContext context, CompletableFuture<Float> change, String prefix) {
+        change.exceptionally(error -> {
+            context.sendMessage(Message.raw(prefix + CustomSpeedPlugin.unwrap(error).getMessage()));
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code /speed increase}/{@code decrease} through the player's throttle. Only the adjustment that opened
+     * the merge window reports the outcome, so a burst produces at most one reply.
+     */
+    private void adjustSpeed(CommandContext context, PlayerRef playerRef, World world, float delta) {
+        AdjustmentThrottle throttle = plugin.getAdjustmentThrottle();
+        long waitMs = throttle.tryAcquire(playerRef.getUuid());
+        if (waitMs > 0) {
+            context.sendMessage(Message.raw("Slow down! You can adjust the speed again in " + waitMs + " ms"));
+            return;
+        }
+
+        CompletableFuture<Float> change = throttle.submit(playerRef.getUuid(), world, delta);
+        if (change == null) {
+            return;
+        }
+
+        String verb = delta >= 0 ? "increase" : "decrease";
+        change.whenComplete((newSpeed, error) -> {
+            if (error != null) {
+                context.sendMessage(Message.raw("Failed to " + verb + " speed: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+            } else if (delta >= 0 && plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMaxSpeed())) {
+                context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMaxSpeed() + "x"));
+            } else if (delta < 0 && plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMinSpeed())) {
+                context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMinSpeed() + "x"));
+            }
+        });
     }
 
     private class GetSpeedVariant extends AbstractPlayerCommand {
@@ -57,29 +191,66 @@ public class SpeedCommand extends AbstractPlayerCommand {
         }
         @Override
         protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
-            float current = plugin.getSpeedConfig().getCurrentSpeed();
-            String message = NotificationService.formatSpeedMessage(current, "Current game speed:");
+            SpeedState state = plugin.getSpeedConfig().getWorldState(world.getName());
+            float current = state.getCurrentSpeed();
+            float effective = plugin.getGovernor().getEffectiveSpeed(world.getName(), current);
+            boolean frozen = plugin.isFrozen(world);
+            if (!frozen && plugin.getValidator().areSpeedsEqual(effective, current)) {
+                context.sendMessage(plugin.getNotifications().getCurrentSpeedMessage(world.getName(), state.getCurrentHundredths()));
+                return;
+            }
+
+            // Only frozen and governed worlds get a reply built per call
+            String message = NotificationService.formatSpeedMessage(current, "Current game speed in " + world.getName() + ":");
+            if (frozen) {
+                message += " - frozen, use /speed step or /speed resume";
+            } else {
+                message += " - " + NotificationService.formatSpeedMessage(effective, "running at") + " due to server load";
+            }
             context.sendMessage(Message.raw(message));
         }
     }
 
     private class ToggleSpeedSubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<String> worldArg;
+
         ToggleSpeedSubCommand() {
             super("toggle", "Toggles between normal and custom speed.");
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
         }
         @Override
         protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
-            plugin.toggleSpeed();
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target != null) {
+                reportFailure(context, plugin.toggleSpeed(target, playerRef.getUuid()), "Failed to toggle speed: ");
+            }
         }
     }
 
     private class ResetSpeedSubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<String> worldArg;
+        private final FlagArg allFlag;
+
         ResetSpeedSubCommand() {
             super("reset", "Resets the game speed to normal (1.0x).");
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+            this.allFlag = this.withFlagArg("all", "Reset every world");
         }
         @Override
         protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
-            plugin.setSpeedMultiplier(1.0f);
+            if (Boolean.TRUE.equals(context.get(this.allFlag))) {
+                plugin.setSpeedMultiplierForAll(SpeedConstants.NORMAL_SPEED, plugin.getDefaultRampMs(), playerRef.getUuid(), ChangeSource.COMMAND).exceptionally(error -> {
+                    context.sendMessage(Message.raw("Failed to reset speed: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+                    return null;
+                });
+                return;
+            }
+
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target != null) {
+                reportFailure(context, plugin.setSpeedMultiplier(target, SpeedConstants.NORMAL_SPEED, plugin.getDefaultRampMs(),
+                    playerRef.getUuid(), ChangeSource.COMMAND), "Failed to reset speed: ");
+            }
         }
     }
 
@@ -100,15 +271,7 @@ public class SpeedCommand extends AbstractPlayerCommand {
         @Override
         protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
             float amount = context.get(this.amountArg);
-            try {
-                float newSpeed = plugin.adjustSpeed(amount);
-
-                if (plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMaxSpeed())) {
-                    context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMaxSpeed() + "x"));
-                }
-            } catch (IllegalStateException e) {
-                context.sendMessage(Message.raw("Failed to increase speed: " + e.getMessage()));
-            }
+            adjustSpeed(context, playerRef, world, amount);
         }
 
         private class IncreaseDefaultVariant extends AbstractPlayerCommand {
@@ -118,15 +281,7 @@ public class SpeedCommand extends AbstractPlayerCommand {
 
             @Override
             protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
-                try {
-                    float newSpeed = plugin.adjustSpeed(SpeedConstants.DEFAULT_ADJUSTMENT_DELTA);
-
-                    if (plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMaxSpeed())) {
-                        context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMaxSpeed() + "x"));
-                    }
-                } catch (IllegalStateException e) {
-                    context.sendMessage(Message.raw("Failed to increase speed: " + e.getMessage()));
-                }
+                adjustSpeed(context, playerRef, world, SpeedConstants.DEFAULT_ADJUSTMENT_DELTA);
             }
         }
     }
@@ -148,15 +303,7 @@ public class SpeedCommand extends AbstractPlayerCommand {
         @Override
         protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
             float amount = context.get(this.amountArg);
-            try {
-                float newSpeed = plugin.adjustSpeed(-amount);
-
-                if (plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMinSpeed())) {
-                    context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMinSpeed() + "x"));
-                }
-            } catch (IllegalStateException e) {
-                context.sendMessage(Message.raw("Failed to decrease speed: " + e.getMessage()));
-            }
+            adjustSpeed(context, playerRef, world, -amount);
         }
 
         private class DecreaseDefaultVariant extends AbstractPlayerCommand {
@@ -166,16 +313,490 @@ public class SpeedCommand extends AbstractPlayerCommand {
 
             @Override
             protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
-                try {
-                    float newSpeed = plugin.adjustSpeed(-SpeedConstants.DEFAULT_ADJUSTMENT_DELTA);
+                adjustSpeed(context, playerRef, world, -SpeedConstants.DEFAULT_ADJUSTMENT_DELTA);
+            }
+        }
+    }
+
+    private class NotifySubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<String> stateArg;
+
+        NotifySubCommand() {
+            super("notify", "Opts you in or out of speed notifications.");
+            this.stateArg = this.withRequiredArg("state", "on or off", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            String state = context.get(this.stateArg);
+            boolean optIn;
+            if ("on".equalsIgnoreCase(state)) {
+                optIn = true;
+            } else if ("off".equalsIgnoreCase(state)) {
+                optIn = false;
+            } else {
+                context.sendMessage(Message.raw("Usage: /speed notify <on|off>"));
+                return;
+            }
+
+            plugin.setNotificationOptIn(playerRef.getUuid(), optIn);
+            context.sendMessage(Message.raw("Speed notifications " + (optIn ? "enabled" : "disabled")
+                + " (delivery mode: " + plugin.getSpeedConfig().getNotificationTarget().getConfigName() + ")"));
+        }
+    }
+
+    private class StatsSubCommand extends AbstractPlayerCommand {
+        StatsSubCommand() {
+            super("stats", "Shows speed change performance statistics.");
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            SpeedMetrics metrics = plugin.getMetrics();
+            LatencyHistogram apply = metrics.getApplyLatency();
+            LatencyHistogram save = metrics.getSaveLatency();
+            LatencyHistogram notify = metrics.getNotifyLatency();
+
+            context.sendMessage(Message.raw("Speed changes: " + metrics.getSpeedChanges()
+                + ", apply failures: " + metrics.getApplyFailures() + ", save failures: " + metrics.getSaveFailures()));
+            context.sendMessage(Message.raw("Apply: " + apply.getCount() + " samples, p50 " + apply.formatPercentile(50)
+                + ", p99 " + apply.formatPercentile(99)));
+            context.sendMessage(Message.raw("Save: " + save.getCount() + " writes (" + plugin.getConfigWriter().getCoalescedWrites()
+                + " coalesced), p50 " + save.formatPercentile(50) + ", p99 " + save.formatPercentile(99)));
+            context.sendMessage(Message.raw("Notify: " + metrics.getNotificationsDelivered() + " deliveries ("
+                + plugin.getNotifications().getCoalescedNotifications() + " coalesced, "
+                + plugin.getNotifications().getSuppressedAlerts() + " alerts suppressed), p99 " + notify.formatPercentile(99)));
+
+            context.sendMessage(Message.raw("Adjust: " + plugin.getAdjustmentThrottle().getMergedAdjustments() + " merged, "
+                + plugin.getAdjustmentThrottle().getRejectedAdjustments() + " throttled"));
+
+            SpeedMetrics.LevelTime mostUsed = metrics.getMostUsedLevel();
+            long minutes = mostUsed.getNanos() / 60_000_000_000L;
+            context.sendMessage(Message.raw("Most time spent at " + mostUsed.getSpeed() + "x (" + minutes + " min)"));
+        }
+    }
+
+    private class ScheduleSubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<String> actionArg;
+        private final OptionalArg<String> profileArg;
+
+        ScheduleSubCommand() {
+            super("schedule", "Shows or skips scheduled speed profiles.");
+            this.actionArg = this.withRequiredArg("action", "list, next or skip", ArgTypes.STRING);
+            this.profileArg = this.withOptionalArg("profile", "Profile to skip (defaults to the next one)", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            ProfileScheduler scheduler = plugin.getProfileScheduler();
+            String action = context.get(this.actionArg);
+
+            if ("list".equalsIgnoreCase(action)) {
+                List<ProfileScheduler.Occurrence> occurrences = scheduler.getOccurrences();
+                if (occurrences.isEmpty()) {
+                    context.sendMessage(Message.raw("No speed profiles are scheduled"));
+                    return;
+                }
+                for (ProfileScheduler.Occurrence occurrence : occurrences) {
+                    context.sendMessage(Message.raw(describe(occurrence)));
+                }
+            } else if ("next".equalsIgnoreCase(action)) {
+                ProfileScheduler.Occurrence next = scheduler.getNext();
+                context.sendMessage(Message.raw(next != null ? "Next: " + describe(next) : "No upcoming speed profile"));
+            } else if ("skip".equalsIgnoreCase(action)) {
+                String name = context.provided(this.profileArg) ? context.get(this.profileArg) : null;
+                ProfileScheduler.Occurrence skipped = scheduler.skip(name);
+                context.sendMessage(Message.raw(skipped != null ? "Skipping " + describe(skipped)
+                    : "Nothing to skip" + (name != null ? " for profile " + name : "")));
+            } else {
+                context.sendMessage(Message.raw("Usage: /speed schedule <list|next|skip> [profile]"));
+            }
+        }
+
+        private String describe(ProfileScheduler.Occurrence occurrence) {
+            SpeedProfile profile = occurrence.getProfile();
+            String target = profile.getWorld().isEmpty() ? "all worlds" : profile.getWorld();
+            return profile.getName() + ": " + profile.getSpeed() + "x in " + target + " at "
+                + occurrence.getTime().format(SCHEDULE_TIME_FORMAT) + (occurrence.isSkipped() ? " (skipped)" : "");
+        }
+    }
+
+    private class HistorySubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<Integer> countArg;
+
+        HistorySubCommand() {
+            super("history", "Shows the most recent speed changes.");
+            this.countArg = this.withOptionalArg("n", "Number of changes to show", ArgTypes.INTEGER);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            SpeedJournal journal = plugin.getJournal();
+            if (journal == null) {
+                context.sendMessage(Message.raw("The speed journal is not available. Check server logs."));
+                return;
+            }
+
+            int count = context.provided(this.countArg) ? context.get(this.countArg) : SpeedConstants.HISTORY_DEFAULT_ENTRIES;
+            if (count < 1 || count > SpeedConstants.HISTORY_MAX_ENTRIES) {
+                context.sendMessage(Message.raw("Count must be between 1 and " + SpeedConstants.HISTORY_MAX_ENTRIES + "!"));
+                return;
+            }
+
+            List<JournalRecord> records;
+            try {
+                records = journal.readRecent(count);
+            } catch (IOException e) {
+                context.sendMessage(Message.raw("Failed to read the speed journal: " + e.getMessage()));
+                return;
+            }
+
+            if (records.isEmpty()) {
+                context.sendMessage(Message.raw("No speed changes recorded yet"));
+                return;
+            }
+            for (JournalRecord record : records) {
+                String time = HISTORY_TIME_FORMAT.format(Instant.ofEpochMilli(record.getTimestampMillis()).atZone(ZoneId.systemDefault()));
+                String actor = record.getActor() != null ? record.getActor().toString() : "server";
+                context.sendMessage(Message.raw(time + " " + record.getWorld() + ": "
+                    + SpeedUnits.toSpeed(record.getOldHundredths()) + "x -> " + SpeedUnits.toSpeed(record.getNewHundredths())
+                    + "x by " + actor + " (" + record.getSource().name().toLowerCase(Locale.ROOT) + ")"));
+            }
+        }
+    }
+
+    private class SelfSpeedSubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<Float> multiplierArg;
+
+        SelfSpeedSubCommand() {
+            super("self", "Sets your own speed on top of the world's speed.");
+            this.multiplierArg = this.withRequiredArg("multiplier", "Your speed multiplier (1.0 = same as the world)", ArgTypes.FLOAT);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            float multiplier = context.get(this.multiplierArg);
+            if (!plugin.getValidator().isValid(multiplier)) {
+                context.sendMessage(Message.raw(plugin.getValidator().getValidationError(multiplier)));
+                return;
+            }
+
+            plugin.setLocalSpeed(store, ref, multiplier);
+            context.sendMessage(Message.raw(NotificationService.formatSpeedMessage(multiplier, "Your speed set to")));
+        }
+    }
+
+    private class ZoneSubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<String> actionArg;
+        private final OptionalArg<String> nameArg;
+        private final OptionalArg<Float> speedArg;
+        private final OptionalArg<String> shapeArg;
+        private final OptionalArg<Float> radiusArg;
+        private final OptionalArg<Float> heightArg;
+
+        ZoneSubCommand() {
+            super("zone", "Manages speed zones around your position.");
+            this.actionArg = this.withRequiredArg("action", "add, remove or list", ArgTypes.STRING);
+            this.nameArg = this.withOptionalArg("name", "Zone name", ArgTypes.STRING);
+            this.speedArg = this.withOptionalArg("speed", "Speed multiplier inside the zone", ArgTypes.FLOAT);
+            this.shapeArg = this.withOptionalArg("shape", "box or cylinder (default cylinder)", ArgTypes.STRING);
+            this.radiusArg = this.withOptionalArg("radius", "Horizontal radius (half the side of a box)", ArgTypes.FLOAT);
+            this.heightArg = this.withOptionalArg("height", "Height, centered on you", ArgTypes.FLOAT);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            String action = context.get(this.actionArg);
+            if ("list".equalsIgnoreCase(action)) {
+                SpeedZone[] zones = plugin.getSpeedConfig().getZones();
+                if (zones.length == 0) {
+                    context.sendMessage(Message.raw("No speed zones defined"));
+                    return;
+                }
+                for (SpeedZone zone : zones) {
+                    context.sendMessage(Message.raw(zone.getName() + ": " + zone.getSpeed() + "x, "
+                        + zone.getShape().toLowerCase(Locale.ROOT) + " in " + zone.getWorld()));
+                }
+            } else if ("remove".equalsIgnoreCase(action) && context.provided(this.nameArg)) {
+                SpeedZone removed = plugin.removeZone(context.get(this.nameArg));
+                context.sendMessage(Message.raw(removed != null ? "Removed speed zone " + removed.getName()
+                    : "Unknown speed zone: " + context.get(this.nameArg)));
+            } else if ("add".equalsIgnoreCase(action) && context.provided(this.nameArg) && context.provided(this.speedArg)) {
+                addZone(context, store, ref, world);
+            } else {
+                context.sendMessage(Message.raw("Usage: /speed zone add <name> <speed> [--shape box|cylinder] [--radius r] [--height h], "
+                    + "/speed zone remove <name>, /speed zone list"));
+            }
+        }
+
+        private void addZone(CommandContext context, Store<EntityStore> store, Ref<EntityStore> ref, World world) {
+            String name = context.get(this.nameArg);
+            float speed = context.get(this.speedArg);
+            String shapeName = context.provided(this.shapeArg) ? context.get(this.shapeArg) : ZoneShape.CYLINDER.getConfigName();
+            float radius = context.provided(this.radiusArg) ? context.get(this.radiusArg) : SpeedConstants.DEFAULT_ZONE_RADIUS;
+            float halfHeight = (context.provided(this.heightArg) ? context.get(this.heightArg) : SpeedConstants.DEFAULT_ZONE_HEIGHT) / 2.0f;
+
+            ZoneShape shape = ZoneShape.fromName(shapeName);
+            if (shape == null) {
+                context.sendMessage(Message.raw("Unknown zone shape '" + shapeName + "', use box or cylinder!"));
+                return;
+            }
+
+            Vector3d position = store.getComponent(ref, TransformComponent.getComponentType()).getPosition();
+            double x = position.getX();
+            double y = position.getY();
+            double z = position.getZ();
+            SpeedZone zone = shape == ZoneShape.BOX
+                ? SpeedZone.box(name, world.getName(), speed, x - radius, y - halfHeight, z - radius, x + radius, y + halfHeight, z + radius)
+                : SpeedZone.cylinder(name, world.getName(), speed, x, z, radius, y - halfHeight, y + halfHeight);
+
+            try {
+                plugin.addZone(zone);
+                context.sendMessage(Message.raw("Added speed zone " + name + " (" + speed + "x) around you"));
+            } catch (IllegalArgumentException e) {
+                context.sendMessage(Message.raw(e.getMessage()));
+            }
+        }
+    }
+
+    private class ProbeSubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<String> actionArg;
+        private final OptionalArg<String> worldArg;
+        private final FlagArg applyFlag;
+
+        ProbeSubCommand() {
+            super("probe", "Measures the highest speed a world sustains within the tick budget.");
+            this.actionArg = this.withRequiredArg("action", "start or cancel", ArgTypes.STRING);
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+            this.applyFlag = this.withFlagArg("apply", "Use the measured ceiling as MaxSpeed");
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            String action = context.get(this.actionArg);
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target == null) {
+                return;
+            }
+
+            if ("cancel".equalsIgnoreCase(action)) {
+                context.sendMessage(Message.raw(plugin.cancelProbe(target)
+                    ? "Stopping the probe of " + target.getName() + " after the current step"
+                    : "No probe is running in " + target.getName()));
+            } else if ("start".equalsIgnoreCase(action)) {
+                start(context, target, Boolean.TRUE.equals(context.get(this.applyFlag)));
+            } else {
+                context.sendMessage(Message.raw("Usage: /speed probe <start|cancel> [--world name] [--apply]"));
+            }
+        }
 
-                    if (plugin.getValidator().areSpeedsEqual(newSpeed, plugin.getSpeedConfig().getMinSpeed())) {
-                        context.sendMessage(Message.raw("Speed capped at " + plugin.getSpeedConfig().getMinSpeed() + "x"));
+        private void start(CommandContext context, World target, boolean apply) {
+            SpeedConfig config = plugin.getSpeedConfig();
+            float stepSeconds = config.getProbeWarmupSeconds() + config.getProbeMeasureSeconds();
+            context.sendMessage(Message.raw("Probing " + target.getName() + " through " + config.getProbeLadder().length
+                + " speeds, " + stepSeconds + " s per step, budget " + config.getTickBudgetMs() + " ms"));
+
+            plugin.probeSpeed(target, step -> context.sendMessage(Message.raw(describe(step)))).whenComplete((report, error) -> {
+                if (error != null) {
+                    context.sendMessage(Message.raw("Probe failed: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+                    return;
+                }
+
+                String outcome = report.isCancelled() ? "Probe cancelled" : "Probe finished";
+                if (report.getCeiling() <= 0) {
+                    context.sendMessage(Message.raw(outcome + ": " + target.getName() + " did not sustain any probed speed, speed restored"));
+                    return;
+                }
+                context.sendMessage(Message.raw(outcome + ": " + target.getName() + " sustains up to " + report.getCeiling()
+                    + "x within " + report.getBudgetMs() + " ms per tick, speed restored"));
+
+                if (apply && report.isCancelled()) {
+                    context.sendMessage(Message.raw("MaxSpeed left unchanged, the probe did not finish"));
+                } else if (apply) {
+                    try {
+                        plugin.applyProbeCeiling(report.getCeiling());
+                        context.sendMessage(Message.raw("MaxSpeed set to " + report.getCeiling() + "x"));
+                    } catch (IllegalArgumentException e) {
+                        context.sendMessage(Message.raw(e.getMessage()));
                     }
-                } catch (IllegalStateException e) {
-                    context.sendMessage(Message.raw("Failed to decrease speed: " + e.getMessage()));
                 }
+            });
+        }
+
+        private String describe(DilationProbe.Step step) {
+            return String.format("%.2fx: p50 %.1f ms, p%.0f %.1f ms, p99 %.1f ms (%d ticks) %s", step.getSpeed(),
+                step.getP50Ms(), SpeedConstants.GOVERNOR_PERCENTILE, step.getP95Ms(), step.getP99Ms(), step.getSamples(),
+                step.isSustained() ? "ok" : "over budget");
+        }
+    }
+
+    private class FreezeSubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<String> worldArg;
+
+        FreezeSubCommand() {
+            super("freeze", "Pauses a world so it can be advanced tick by tick.");
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target == null) {
+                return;
+            }
+            plugin.freezeWorld(target).whenComplete((ignored, error) -> context.sendMessage(Message.raw(error != null
+                ? "Failed to freeze: " + CustomSpeedPlugin.unwrap(error).getMessage()
+                : target.getName() + " is frozen, use /speed step [n] to advance it and /speed resume to continue")));
+        }
+    }
+
+    private class StepSubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<String> ticksArg;
+        private final OptionalArg<String> worldArg;
+
+        StepSubCommand() {
+            super("step", "Advances a frozen world by a number of ticks, or reports the slowest ones.");
+            this.ticksArg = this.withOptionalArg("ticks", "Ticks to advance (default 1), or report", ArgTypes.STRING);
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target == null) {
+                return;
+            }
+
+            String ticksValue = context.provided(this.ticksArg) ? context.get(this.ticksArg) : "1";
+            if ("report".equalsIgnoreCase(ticksValue)) {
+                report(context, target);
+                return;
+            }
+
+            int ticks;
+            try {
+                ticks = Integer.parseInt(ticksValue);
+            } catch (NumberFormatException e) {
+                context.sendMessage(Message.raw("Usage: /speed step [ticks|report] [--world name]"));
+                return;
+            }
+            plugin.stepWorld(target, ticks).whenComplete((samples, error) -> {
+                if (error != null) {
+                    context.sendMessage(Message.raw("Failed to step: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+                    return;
+                }
+                long totalNanos = 0L;
+                long slowestNanos = 0L;
+                for (TickStepper.TickSample sample : samples) {
+                    totalNanos += sample.getDurationNanos();
+                    slowestNanos = Math.max(slowestNanos, sample.getDurationNanos());
+                }
+                context.sendMessage(Message.raw(String.format("Advanced %s by %d tick(s): average %.1f ms, slowest %.1f ms",
+                    target.getName(), samples.size(), totalNanos / 1_000_000.0 / samples.size(), slowestNanos / 1_000_000.0)));
+            });
+        }
+
+        private void report(CommandContext context, World target) {
+            List<TickStepper.TickSample> slowest = plugin.getSlowestTicks(target, SpeedConstants.STEP_REPORT_ENTRIES);
+            if (slowest.isEmpty()) {
+                context.sendMessage(Message.raw("No stepped ticks recorded in " + target.getName()));
+                return;
+            }
+            context.sendMessage(Message.raw("Slowest stepped ticks in " + target.getName() + ":"));
+            for (TickStepper.TickSample sample : slowest) {
+                context.sendMessage(Message.raw(String.format("Tick %d: %.2f ms", sample.getTickNumber(), sample.getDurationMs())));
+            }
+        }
+    }
+
+    private class ResumeSubCommand extends AbstractPlayerCommand {
+        private final OptionalArg<String> worldArg;
+
+        ResumeSubCommand() {
+            super("resume", "Ends a freeze and restores the world's speed.");
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target == null) {
+                return;
+            }
+            plugin.resumeWorld(target).whenComplete((ignored, error) -> context.sendMessage(Message.raw(error != null
+                ? "Failed to resume: " + CustomSpeedPlugin.unwrap(error).getMessage()
+                : target.getName() + " resumed")));
+        }
+    }
+
+    private class SkipSubCommand extends AbstractPlayerCommand {
+        private final RequiredArg<String> durationArg;
+        private final OptionalArg<String> worldArg;
+
+        SkipSubCommand() {
+            super("skip", "Runs a world fast until the given game time has passed.");
+            this.durationArg = this.withRequiredArg("duration", "Game time to skip (e.g. 30m or 1d12h), status or cancel", ArgTypes.STRING);
+            this.worldArg = this.withOptionalArg("world", "Target world (defaults to your world)", ArgTypes.STRING);
+        }
+
+        @Override
+        protected void execute(@Nonnull CommandContext context, @Nonnull Store<EntityStore> store, @Nonnull Ref<EntityStore> ref, @Nonnull PlayerRef playerRef, @Nonnull World world) {
+            World target = resolveWorld(context, this.worldArg, world);
+            if (target == null) {
+                return;
+            }
+
+            String value = context.get(this.durationArg);
+            if ("status".equalsIgnoreCase(value)) {
+                TimeSkipper.Progress progress = plugin.getSkipProgress(target);
+                context.sendMessage(Message.raw(progress != null ? describe(target, progress) : "No time skip is running in " + target.getName()));
+                return;
+            }
+            if ("cancel".equalsIgnoreCase(value)) {
+                context.sendMessage(Message.raw(plugin.cancelSkip(target)
+                    ? "Cancelling the time skip of " + target.getName()
+                    : "No time skip is running in " + target.getName()));
+                return;
+            }
+
+            Duration gameTime;
+            try {
+                gameTime = TimeSkipper.parseDuration(value);
+            } catch (IllegalArgumentException e) {
+                context.sendMessage(Message.raw(e.getMessage()));
+                return;
+            }
+
+            CompletableFuture<TimeSkipper.Result> skipping = plugin.skipWorld(target, gameTime);
+            if (!skipping.isCompletedExceptionally()) {
+                float maxSpeed = plugin.getSpeedConfig().getMaxSpeed();
+                context.sendMessage(Message.raw("Skipping " + format(gameTime) + " of game time in " + target.getName()
+                    + " at up to " + maxSpeed + "x, taking at least " + format(Duration.ofNanos((long) (gameTime.toNanos() / maxSpeed)))
+                    + ". Use /speed skip status or /speed skip cancel"));
+            }
+            skipping.whenComplete((result, error) -> {
+                if (error != null) {
+                    context.sendMessage(Message.raw("Time skip failed: " + CustomSpeedPlugin.unwrap(error).getMessage()));
+                    return;
+                }
+                context.sendMessage(Message.raw((result.isCancelled() ? "Time skip cancelled after " : "Skipped ")
+                    + format(result.getSkipped()) + " of game time in " + target.getName() + " in " + format(result.getWallTime())
+                    + ", speed restored"));
+            });
+        }
+
+        private String describe(World target, TimeSkipper.Progress progress) {
+            return String.format("Skipped %s of %s in %s at %.2fx, about %s left", format(progress.getSkipped()),
+                format(progress.getSkipped().plus(progress.getRemaining())), target.getName(), progress.getSpeed(),
+                format(progress.getEta()));
+        }
+
+        private String format(Duration duration) {
+            long seconds = duration.getSeconds();
+            if (seconds >= 3600L) {
+                return String.format("%dh %02dm", seconds / 3600L, seconds % 3600L / 60L);
             }
+            return String.format("%dm %02ds", seconds / 60L, seconds % 60L);
         }
     }
-}
\ No newline at end of file
+}
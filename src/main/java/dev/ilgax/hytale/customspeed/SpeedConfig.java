@@ -1,53 +1,361 @@
 package dev.ilgax.hytale.customspeed;
 
 import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 public class SpeedConfig {
-    // Configuration constants
-    private float minSpeed = 0.01f;
-    private float maxSpeed = 10.0f;
+    // Min/max bounds, the default speed for worlds without their own entry and the speed to toggle to when using
+    // /speed toggle, held as one immutable snapshot so concurrent commands never see a half-updated state
+    private final AtomicReference<SpeedState> state = new AtomicReference<>(SpeedState.DEFAULT);
 
-    // The speed currently applied to the world
-    private float currentSpeed = 1.0f;
-    // The speed to toggle to when using /speed toggle
-    private float toggleTargetSpeed = 0.5f;
+    // Per-world speed state keyed by world name; worlds without an entry run at the default state above
+    private final ConcurrentHashMap<String, AtomicReference<SpeedState>> worldStates = new ConcurrentHashMap<>();
+
+    // Speeds as written in the config file. They seed the live state above, which is then restored from and persisted
+    // to the binary state file; these are written back unchanged, so runtime speed changes never rewrite the config
+    private volatile float configuredCurrentSpeed = SpeedConstants.NORMAL_SPEED;
+    private volatile float configuredToggleTargetSpeed = SpeedConstants.DEFAULT_TOGGLE_SPEED;
+    private volatile WorldSpeedEntry[] configuredWorldSpeeds = new WorldSpeedEntry[0];
+
+    // Ramp applied to speed changes that do not specify their own duration (0 = instant)
+    private float defaultRampSeconds = 0.0f;
+    // Interpolation curve used for ramps
+    private String rampCurve = "Linear";
+
+    // Opt-in load governor and the tick time it tries to stay within
+    private boolean governorEnabled = false;
+    private float tickBudgetMs = SpeedConstants.DEFAULT_TICK_BUDGET_MS;
+
+    // Speeds /speed probe steps through, and how long each step is held before and while its tick times are measured
+    private volatile Float[] probeLadder = SpeedConstants.DEFAULT_PROBE_LADDER.clone();
+    private float probeWarmupSeconds = SpeedConstants.DEFAULT_PROBE_WARMUP_SECONDS;
+    private float probeMeasureSeconds = SpeedConstants.DEFAULT_PROBE_MEASURE_SECONDS;
+
+    // Who receives speed notifications, and the players who opted in to them
+    private volatile NotificationTarget notificationTarget = NotificationTarget.WORLD;
+    private final Set<UUID> notificationOptIns = ConcurrentHashMap.newKeySet();
+
+    // Speed profiles switched to on a schedule
+    private volatile SpeedProfile[] profiles = new SpeedProfile[0];
+
+    // Regions that change the speed of entities inside them; earlier zones win where zones overlap
+    private volatile SpeedZone[] zones = new SpeedZone[0];
+
+    // Optional speed sync between server processes on one host through a shared file (absolute path)
+    private boolean syncEnabled = false;
+    private String syncFile = "";
+
+    // Whether to write Prometheus metrics to a file in the plugin's data directory
+    private boolean exportMetrics = false;
+
+    /**
+     * @return The current immutable state snapshot
+     */
+    public SpeedState getState() {
+        return state.get();
+    }
+
+    /**
+     * Atomically replaces the state if it is still the expected snapshot.
+     *
+     * @param expected The snapshot the update was computed from
+     * @param updated The new snapshot
+     * @return true if the state was replaced
+     */
+    public boolean compareAndSet(SpeedState expected, SpeedState updated) {
+        return state.compareAndSet(expected, updated);
+    }
+
+    /**
+     * Applies an update function to the state, retrying on contention.
+     *
+     * @param update Function deriving the new state from the current one; may be called several times
+     * @return The state that was installed
+     */
+    public SpeedState update(UnaryOperator<SpeedState> update) {
+        return state.updateAndGet(update);
+    }
+
+    /**
+     * @param worldName The world name
+     * @return The world's state snapshot, or the default state if the world has none yet
+     */
+    public SpeedState getWorldState(String worldName) {
+        AtomicReference<SpeedState> worldState = worldStates.get(worldName);
+        return worldState != null ? worldState.get() : state.get();
+    }
+
+    /**
+     * Atomically replaces a world's state if it is still the expected snapshot.
+     * A world without state of its own starts from the default state.
+     *
+     * @param worldName The world name
+     * @param expected The snapshot the update was computed from
+     * @param updated The new snapshot
+     * @return true if the state was replaced
+     */
+    public boolean compareAndSetWorld(String worldName, SpeedState expected, SpeedState updated) {
+        return worldStates.computeIfAbsent(worldName, name -> new AtomicReference<>(state.get()))
+            .compareAndSet(expected, updated);
+    }
+
+    /**
+     * @return Live view of the worlds that have state of their own
+     */
+    public Map<String, AtomicReference<SpeedState>> getWorldStates() {
+        return worldStates;
+    }
 
     public float getCurrentSpeed() {
-        return currentSpeed;
+        return state.get().getCurrentSpeed();
     }
 
+    /**
+     * Sets the configured default speed and makes it the live default speed.
+     */
     public void setCurrentSpeed(float currentSpeed) {
-        this.currentSpeed = currentSpeed;
+        this.configuredCurrentSpeed = currentSpeed;
+        update(s -> s.withCurrent(SpeedUnits.toHundredths(currentSpeed)));
+    }
+
+    /**
+     * @return The default speed as written in the config file, which may differ from the live speed
+     */
+    public float getConfiguredCurrentSpeed() {
+        return configuredCurrentSpeed;
     }
 
     public float getToggleTargetSpeed() {
-        return toggleTargetSpeed;
+        return state.get().getToggleTargetSpeed();
     }
 
+    /**
+     * Sets the configured toggle target and makes it the live toggle target.
+     */
     public void setToggleTargetSpeed(float toggleTargetSpeed) {
-        this.toggleTargetSpeed = toggleTargetSpeed;
+        this.configuredToggleTargetSpeed = toggleTargetSpeed;
+        update(s -> s.withToggleTarget(SpeedUnits.toHundredths(toggleTargetSpeed)));
+    }
+
+    /**
+     * @return The toggle target as written in the config file, which may differ from the live toggle target
+     */
+    public float getConfiguredToggleTargetSpeed() {
+        return configuredToggleTargetSpeed;
     }
 
     public float getMinSpeed() {
-        return minSpeed;
+        return state.get().getMinSpeed();
     }
 
     public void setMinSpeed(float minSpeed) {
-        this.minSpeed = minSpeed;
+        int min = SpeedUnits.toHundredths(minSpeed);
+        update(s -> s.withBounds(min, s.getMaxHundredths()));
+        worldStates.values().forEach(worldState -> worldState.updateAndGet(s -> s.withBounds(min, s.getMaxHundredths())));
     }
 
     public float getMaxSpeed() {
-        return maxSpeed;
+        return state.get().getMaxSpeed();
     }
 
     public void setMaxSpeed(float maxSpeed) {
-        this.maxSpeed = maxSpeed;
+        int max = SpeedUnits.toHundredths(maxSpeed);
+        update(s -> s.withBounds(s.getMinHundredths(), max));
+        worldStates.values().forEach(worldState -> worldState.updateAndGet(s -> s.withBounds(s.getMinHundredths(), max)));
+    }
+
+    public float getDefaultRampSeconds() {
+        return defaultRampSeconds;
+    }
+
+    public void setDefaultRampSeconds(float defaultRampSeconds) {
+        this.defaultRampSeconds = defaultRampSeconds;
+    }
+
+    public String getRampCurve() {
+        return rampCurve;
+    }
+
+    public void setRampCurve(String rampCurve) {
+        this.rampCurve = rampCurve;
+    }
+
+    public boolean isGovernorEnabled() {
+        return governorEnabled;
+    }
+
+    public void setGovernorEnabled(boolean governorEnabled) {
+        this.governorEnabled = governorEnabled;
+    }
+
+    public float getTickBudgetMs() {
+        return tickBudgetMs;
+    }
+
+    public void setTickBudgetMs(float tickBudgetMs) {
+        this.tickBudgetMs = tickBudgetMs;
+    }
+
+    public Float[] getProbeLadder() {
+        return probeLadder;
+    }
+
+    public void setProbeLadder(Float[] probeLadder) {
+        this.probeLadder = probeLadder;
+    }
+
+    public float getProbeWarmupSeconds() {
+        return probeWarmupSeconds;
+    }
+
+    public void setProbeWarmupSeconds(float probeWarmupSeconds) {
+        this.probeWarmupSeconds = probeWarmupSeconds;
+    }
+
+    public float getProbeMeasureSeconds() {
+        return probeMeasureSeconds;
+    }
+
+    public void setProbeMeasureSeconds(float probeMeasureSeconds) {
+        this.probeMeasureSeconds = probeMeasureSeconds;
+    }
+
+    public NotificationTarget getNotificationTarget() {
+        return notificationTarget;
+    }
+
+    public void setNotificationTarget(NotificationTarget notificationTarget) {
+        this.notificationTarget = notificationTarget;
+    }
+
+    public String getNotificationTargetName() {
+        return notificationTarget.getConfigName();
+    }
+
+    public void setNotificationTargetName(String notificationTargetName) {
+        this.notificationTarget = NotificationTarget.fromName(notificationTargetName);
+    }
+
+    public boolean isNotificationOptIn(UUID player) {
+        return notificationOptIns.contains(player);
+    }
+
+    /**
+     * @param player The player
+     * @param optIn Whether the player wants speed notifications
+     * @return true if the setting changed
+     */
+    public boolean setNotificationOptIn(UUID player, boolean optIn) {
+        return optIn ? notificationOptIns.add(player) : notificationOptIns.remove(player);
+    }
+
+    public String[] getNotificationOptIns() {
+        return notificationOptIns.stream().map(UUID::toString).toArray(String[]::new);
+    }
+
+    public void setNotificationOptIns(String[] notificationOptIns) {
+        this.notificationOptIns.clear();
+        for (String player : notificationOptIns) {
+            try {
+                this.notificationOptIns.add(UUID.fromString(player));
+            } catch (IllegalArgumentException e) {
+                // Skip malformed entries instead of failing the whole config
+            }
+        }
+    }
+
+    public boolean isExportMetrics() {
+        return exportMetrics;
+    }
+
+    public void setExportMetrics(boolean exportMetrics) {
+        this.exportMetrics = exportMetrics;
+    }
+
+    public SpeedZone[] getZones() {
+        return zones;
+    }
+
+    public void setZones(SpeedZone[] zones) {
+        this.zones = zones;
+    }
+
+    public boolean isSyncEnabled() {
+        return syncEnabled;
+    }
+
+    public void setSyncEnabled(boolean syncEnabled) {
+        this.syncEnabled = syncEnabled;
+    }
+
+    public String getSyncFile() {
+        return syncFile;
+    }
+
+    public void setSyncFile(String syncFile) {
+        this.syncFile = syncFile;
+    }
+
+    public SpeedProfile[] getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(SpeedProfile[] profiles) {
+        this.profiles = profiles;
+    }
+
+    /**
+     * @return The per-world speeds as written in the config file, which may differ from the live ones
+     */
+    public WorldSpeedEntry[] getWorldSpeeds() {
+        return configuredWorldSpeeds;
+    }
+
+    /**
+     * Replaces the per-world speeds written to the config file without touching the live state.
+     */
+    public void setConfiguredWorldSpeeds(WorldSpeedEntry[] worldSpeeds) {
+        this.configuredWorldSpeeds = worldSpeeds;
+    }
+
+    /**
+     * Sets the configured per-world speeds and makes them the live state of those worlds.
+     */
+    public void setWorldSpeeds(WorldSpeedEntry[] worldSpeeds) {
+        this.configuredWorldSpeeds = worldSpeeds;
+        worldStates.clear();
+        for (WorldSpeedEntry entry : worldSpeeds) {
+            SpeedState worldState = state.get().withSpeeds(
+                SpeedUnits.toHundredths(entry.getCurrentSpeed()), SpeedUnits.toHundredths(entry.getToggleTargetSpeed()));
+            worldStates.put(entry.getWorld(), new AtomicReference<>(worldState));
+        }
     }
 
     public static final BuilderCodec<SpeedConfig> CODEC = BuilderCodec.builder(SpeedConfig.class, SpeedConfig::new)
             .append(new com.hypixel.hytale.codec.KeyedCodec<>("MinSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setMinSpeed, SpeedConfig::getMinSpeed).add()
             .append(new com.hypixel.hytale.codec.KeyedCodec<>("MaxSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setMaxSpeed, SpeedConfig::getMaxSpeed).add()
-            .append(new com.hypixel.hytale.codec.KeyedCodec<>("CurrentSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setCurrentSpeed, SpeedConfig::getCurrentSpeed).add()
-            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ToggleTargetSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setToggleTargetSpeed, SpeedConfig::getToggleTargetSpeed).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("CurrentSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setCurrentSpeed, SpeedConfig::getConfiguredCurrentSpeed).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ToggleTargetSpeed", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setToggleTargetSpeed, SpeedConfig::getConfiguredToggleTargetSpeed).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("DefaultRampSeconds", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setDefaultRampSeconds, SpeedConfig::getDefaultRampSeconds).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("RampCurve", com.hypixel.hytale.codec.Codec.STRING), SpeedConfig::setRampCurve, SpeedConfig::getRampCurve).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("GovernorEnabled", com.hypixel.hytale.codec.Codec.BOOLEAN), SpeedConfig::setGovernorEnabled, SpeedConfig::isGovernorEnabled).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("TickBudgetMs", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setTickBudgetMs, SpeedConfig::getTickBudgetMs).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ProbeLadder", new ArrayCodec<>(com.hypixel.hytale.codec.Codec.FLOAT, Float[]::new)), SpeedConfig::setProbeLadder, SpeedConfig::getProbeLadder).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ProbeWarmupSeconds", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setProbeWarmupSeconds, SpeedConfig::getProbeWarmupSeconds).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ProbeMeasureSeconds", com.hypixel.hytale.codec.Codec.FLOAT), SpeedConfig::setProbeMeasureSeconds, SpeedConfig::getProbeMeasureSeconds).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("NotificationTarget", com.hypixel.hytale.codec.Codec.STRING), SpeedConfig::setNotificationTargetName, SpeedConfig::getNotificationTargetName).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("NotificationOptIns", new ArrayCodec<>(com.hypixel.hytale.codec.Codec.STRING, String[]::new)), SpeedConfig::setNotificationOptIns, SpeedConfig::getNotificationOptIns).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("ExportMetrics", com.hypixel.hytale.codec.Codec.BOOLEAN), SpeedConfig::setExportMetrics, SpeedConfig::isExportMetrics).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("Zones", new ArrayCodec<>(SpeedZone.CODEC, SpeedZone[]::new)), SpeedConfig::setZones, SpeedConfig::getZones).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("SyncEnabled", com.hypixel.hytale.codec.Codec.BOOLEAN), SpeedConfig::setSyncEnabled, SpeedConfig::isSyncEnabled).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("SyncFile", com.hypixel.hytale.codec.Codec.STRING), SpeedConfig::setSyncFile, SpeedConfig::getSyncFile).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("Profiles", new ArrayCodec<>(SpeedProfile.CODEC, SpeedProfile[]::new)), SpeedConfig::setProfiles, SpeedConfig::getProfiles).add()
+            .append(new com.hypixel.hytale.codec.KeyedCodec<>("WorldSpeeds", new ArrayCodec<>(WorldSpeedEntry.CODEC, WorldSpeedEntry[]::new)), SpeedConfig::setWorldSpeeds, SpeedConfig::getWorldSpeeds).add()
             .build();
 }
@@ -1,9 +1,6 @@
 package dev.ilgax.hytale.customspeed;
 
 public final class SpeedConstants {
-    // Tolerance for floating-point comparisons
-    public static final float FLOAT_TOLERANCE = 0.001f;
-
     // Normal speed value
     public static final float NORMAL_SPEED = 1.0f;
 
@@ -17,6 +14,105 @@ public final class SpeedConstants {
     // Default adjustment increments
     public static final float DEFAULT_ADJUSTMENT_DELTA = 0.1f;
 
+    // Per-player throttling of /speed increase and decrease: bucket size, refill rate and merge window
+    public static final double ADJUST_BURST = 5.0;
+    public static final double ADJUST_RATE_PER_SECOND = 4.0;
+    public static final long ADJUST_MERGE_WINDOW_MS = 250L;
+
+    // Write-behind config persistence
+    public static final long CONFIG_FLUSH_DELAY_MS = 1000L;
+    public static final int CONFIG_FLUSH_DIRTY_THRESHOLD = 25;
+    public static final long CONFIG_WRITER_SHUTDOWN_TIMEOUT_MS = 5000L;
+
+    // Quiet period after the last edit of the config file before it is reloaded
+    public static final long CONFIG_RELOAD_DEBOUNCE_MS = 500L;
+
+    // How long a speed change may wait for the server to accept the dilation
+    public static final long APPLY_TIMEOUT_MS = 5000L;
+
+    // Speed ramping: scheduler tick interval and upper bound for a ramp duration
+    public static final long RAMP_TICK_MS = 50L;
+    public static final float MAX_RAMP_SECONDS = 600.0f;
+
+    // Tick monitoring and load governor
+    public static final int TICK_WINDOW_SIZE = 200;
+    // Time a tick may take to run; stays below the 33 ms period of a world ticking at 30 TPS, so a world within
+    // budget keeps its tick rate with some headroom left
+    public static final float DEFAULT_TICK_BUDGET_MS = 25.0f;
+    public static final long GOVERNOR_INTERVAL_MS = 1000L;
+    public static final int GOVERNOR_MIN_SAMPLES = 20;
+    public static final float GOVERNOR_PERCENTILE = 95.0f;
+    public static final float GOVERNOR_KP = 0.5f;
+    public static final float GOVERNOR_KI = 0.2f;
+    public static final float GOVERNOR_DEADBAND = 0.05f;
+    public static final float GOVERNOR_MIN_FACTOR = 0.1f;
+
+    // Highest MaxSpeed the config accepts
+    public static final float MAX_SPEED_LIMIT = 100.0f;
+
+    // Dilation probe: default ladder of speeds and how long each step is held before and while it is measured
+    public static final Float[] DEFAULT_PROBE_LADDER = {1.5f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 8.0f, 10.0f, 15.0f, 20.0f};
+    public static final float DEFAULT_PROBE_WARMUP_SECONDS = 5.0f;
+    public static final float DEFAULT_PROBE_MEASURE_SECONDS = 10.0f;
+    public static final float MAX_PROBE_STEP_SECONDS = 300.0f;
+
+    // Timer wheel driving scheduled speed profiles: one slot per second, 512 slots per round
+    public static final long TIMER_WHEEL_TICK_MS = 1000L;
+    public static final int TIMER_WHEEL_SLOTS = 512;
+
+    // Freeze and stepping: dilation a frozen world is held at (time dilation must stay positive), most ticks per step,
+    // stepped ticks kept for /speed step report and how many of them it lists
+    public static final float FREEZE_DILATION = 0.001f;
+    public static final int STEP_MAX_TICKS = 1000;
+    public static final int STEP_RING_SIZE = 1024;
+    public static final int STEP_REPORT_ENTRIES = 10;
+
+    // Time skips: evaluation interval, how often the remaining time is persisted, the largest speed-up per evaluation,
+    // the longest game time one skip may cover and the file the remaining times are kept in
+    public static final long SKIP_INTERVAL_MS = 1000L;
+    public static final long SKIP_PERSIST_INTERVAL_MS = 5000L;
+    public static final float SKIP_MAX_SPEED_UP = 1.5f;
+    public static final long MAX_SKIP_DAYS = 7L;
+    public static final String SKIP_FILE_NAME = "skip-jobs.properties";
+
+    // Speed change journal: directory in the plugin's data folder, records per segment file and segments kept
+    public static final String JOURNAL_DIRECTORY = "journal";
+    public static final int JOURNAL_RECORDS_PER_SEGMENT = 4096;
+    public static final int JOURNAL_MAX_SEGMENTS = 8;
+    public static final int HISTORY_DEFAULT_ENTRIES = 10;
+    public static final int HISTORY_MAX_ENTRIES = 100;
+
+    // Multi-instance sync: worlds per sync file, snapshot read attempts per slot and how long a publish waits for a
+    // slot locked by a live process
+    public static final int SYNC_SLOTS = 64;
+    public static final int SYNC_READ_ATTEMPTS = 16;
+    public static final long SYNC_LOCK_TIMEOUT_MS = 1000L;
+
+    // Speed zones: cells of 2^5 = 32 blocks per side, and the most cells one zone may touch
+    public static final int ZONE_CELL_SHIFT = 5;
+    public static final long MAX_ZONE_CELLS = 65536L;
+    public static final float DEFAULT_ZONE_RADIUS = 16.0f;
+    public static final float DEFAULT_ZONE_HEIGHT = 32.0f;
+
+    // File the plugin config is stored in, inside the plugin's data folder
+    public static final String CONFIG_FILE_NAME = "config.json";
+
+    // Folder inside the plugin's data folder the config is written to before it atomically replaces config.json
+    public static final String CONFIG_STAGING_DIRECTORY = "staging";
+
+    // Binary file holding the live speeds, inside the plugin's data folder
+    public static final String STATE_FILE_NAME = "speed-state.bin";
+    // Longest time a state file write stays unforced; writes within it share one force
+    public static final long STATE_FORCE_DELAY_MS = 200L;
+
+    // Notification coalescing window and minimum interval between identical errors/warnings
+    public static final long NOTIFICATION_COALESCE_MS = 500L;
+    public static final long ALERT_MIN_INTERVAL_MS = 10000L;
+
+    // Metrics file export
+    public static final long METRICS_EXPORT_INTERVAL_MS = 15000L;
+    public static final String METRICS_FILE_NAME = "metrics.prom";
+
     private SpeedConstants() {
         throw new AssertionError("Utility class should not be instantiated");
     }
@@ -0,0 +1,296 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of applied speed changes.
+ * <p>
+ * Records have a fixed width and are written into memory-mapped segment files of a fixed number of slots. When a
+ * segment is full the next one is started and the oldest segments beyond the retention limit are deleted. Every
+ * record carries a CRC, so a record torn by a crash reads as the end of the journal. Reads walk backward from the
+ * newest record and stop as soon as they have what they need; older segments are read in blocks rather than
+ * loaded whole.
+ * <p>
+ * Mapped writes survive a crash of the server process; segments are only forced to disk on rotation and close.
+ */
+public class SpeedJournal {
+    // Record layout: timestamp, old speed, new speed, actor UUID, source, world name, CRC of everything before it
+    private static final int RECORD_SIZE = 128;
+    private static final int OFFSET_TIMESTAMP = 0;
+    private static final int OFFSET_OLD = 8;
+    private static final int OFFSET_NEW = 12;
+    private static final int OFFSET_ACTOR_MSB = 16;
+    private static final int OFFSET_ACTOR_LSB = 24;
+    private static final int OFFSET_SOURCE = 32;
+    private static final int OFFSET_WORLD_LENGTH = 33;
+    private static final int OFFSET_WORLD = 34;
+    private static final int MAX_WORLD_BYTES = 88;
+    private static final int OFFSET_CRC = RECORD_SIZE - 4;
+
+    // Records read at once when scanning older segments
+    private static final int READ_BLOCK_RECORDS = 64;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final CRC32 crc = new CRC32();
+
+    // Guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentIndex;
+    private int writeSlot;
+
+    private SpeedJournal(Path directory, int recordsPerSegment, int maxSegments) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Opens the journal in a directory, continuing after the last intact record of the newest segment.
+     *
+     * @param directory Directory holding the segment files; created if missing
+     * @param recordsPerSegment Number of records per segment file
+     * @param maxSegments Number of segment files to keep
+     * @return The open journal
+     * @throws IOException if the directory or newest segment cannot be opened
+     */
+    public static SpeedJournal open(Path directory, int recordsPerSegment, int maxSegments) throws IOException {
+        Files.createDirectories(directory);
+        SpeedJournal journal = new SpeedJournal(directory, recordsPerSegment, maxSegments);
+
+        List<Long> segments = journal.listSegments();
+        long newest = segments.isEmpty() ? 1L : segments.get(segments.size() - 1);
+        synchronized (journal) {
+            journal.mapSegment(newest);
+            while (journal.writeSlot < recordsPerSegment && journal.decode(journal.buffer, journal.writeSlot * RECORD_SIZE) != null) {
+                journal.writeSlot++;
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Appends a record, starting a new segment if the current one is full.
+     *
+     * @param record The record to append
+     * @throws IOException if a new segment cannot be created
+     */
+    public synchronized void append(JournalRecord record) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        if (writeSlot >= recordsPerSegment) {
+            rotate();
+        }
+        encode(record, writeSlot * RECORD_SIZE);
+        writeSlot++;
+    }
+
+    /**
+     * @param limit Maximum number of records
+     * @return The newest records, newest first
+     * @throws IOException if an older segment cannot be read
+     */
+    public List<JournalRecord> readRecent(int limit) throws IOException {
+        List<JournalRecord> records = new ArrayList<>(Math.min(limit, recordsPerSegment));
+        if (limit > 0) {
+            scanBackward(record -> {
+                records.add(record);
+                return records.size() < limit;
+            });
+        }
+        return records;
+    }
+
+    /**
+     * Finds the last recorded speed of every world in the journal.
+     *
+     * @return The newest record per world name
+     * @throws IOException if an older segment cannot be read
+     */
+    public Map<String, JournalRecord> recoverLatest() throws IOException {
+        Map<String, JournalRecord> latest = new LinkedHashMap<>();
+        scanBackward(record -> {
+            latest.putIfAbsent(record.getWorld(), record);
+            return true;
+        });
+        return latest;
+    }
+
+    /**
+     * Forces the current segment to disk and releases it. Later appends are ignored.
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    /**
+     * Feeds intact records to the visitor from newest to oldest until it returns false.
+     */
+    private synchronized void scanBackward(Predicate<JournalRecord> visitor) throws IOException {
+        if (channel == null) {
+            return;
+        }
+
+        for (int slot = writeSlot - 1; slot >= 0; slot--) {
+            JournalRecord record = decode(buffer, slot * RECORD_SIZE);
+            if (record != null && !visitor.test(record)) {
+                return;
+            }
+        }
+
+        List<Long> segments = listSegments();
+        Collections.reverse(segments);
+        ByteBuffer block = ByteBuffer.allocate(READ_BLOCK_RECORDS * RECORD_SIZE);
+        for (long index : segments) {
+            if (index >= segmentIndex) {
+                continue;
+            }
+            try (FileChannel older = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                long count = older.size() / RECORD_SIZE;
+                for (long end = count; end > 0; end -= READ_BLOCK_RECORDS) {
+                    long start = Math.max(0L, end - READ_BLOCK_RECORDS);
+                    block.clear().limit((int) (end - start) * RECORD_SIZE);
+                    while (block.hasRemaining() && older.read(block, start * RECORD_SIZE + block.position()) >= 0) {
+                        // Keep reading until the block is full
+                    }
+
+                    for (long slot = end - 1; slot >= start; slot--) {
+                        JournalRecord record = decode(block, (int) (slot - start) * RECORD_SIZE);
+                        if (record != null && !visitor.test(record)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        buffer.force();
+        channel.close();
+        mapSegment(segmentIndex + 1);
+
+        for (long index : listSegments()) {
+            if (index <= segmentIndex - maxSegments) {
+                Files.deleteIfExists(segmentPath(index));
+            }
+        }
+    }
+
+    private void mapSegment(long index) throws IOException {
+        this.channel = FileChannel.open(segmentPath(index),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        this.segmentIndex = index;
+        this.writeSlot = 0;
+    }
+
+    private void encode(JournalRecord record, int offset) {
+        UUID actor = record.getActor();
+        byte[] world = truncateUtf8(record.getWorld().getBytes(StandardCharsets.UTF_8));
+
+        buffer.putLong(offset + OFFSET_TIMESTAMP, record.getTimestampMillis());
+        buffer.putInt(offset + OFFSET_OLD, record.getOldHundredths());
+        buffer.putInt(offset + OFFSET_NEW, record.getNewHundredths());
+        buffer.putLong(offset + OFFSET_ACTOR_MSB, actor != null ? actor.getMostSignificantBits() : 0L);
+        buffer.putLong(offset + OFFSET_ACTOR_LSB, actor != null ? actor.getLeastSignificantBits() : 0L);
+        buffer.put(offset + OFFSET_SOURCE, (byte) record.getSource().getId());
+        buffer.put(offset + OFFSET_WORLD_LENGTH, (byte) world.length);
+        buffer.put(offset + OFFSET_WORLD, world);
+
+        // The CRC goes last: until it is written the slot reads as torn
+        buffer.putInt(offset + OFFSET_CRC, checksum(buffer, offset));
+    }
+
+    private JournalRecord decode(ByteBuffer source, int offset) {
+        long timestamp = source.getLong(offset + OFFSET_TIMESTAMP);
+        if (timestamp == 0L || source.getInt(offset + OFFSET_CRC) != checksum(source, offset)) {
+            return null;
+        }
+
+        long actorMsb = source.getLong(offset + OFFSET_ACTOR_MSB);
+        long actorLsb = source.getLong(offset + OFFSET_ACTOR_LSB);
+        int worldLength = Math.min(MAX_WORLD_BYTES, source.get(offset + OFFSET_WORLD_LENGTH) & 0xFF);
+        byte[] world = new byte[worldLength];
+        source.get(offset + OFFSET_WORLD, world);
+
+        return new JournalRecord(timestamp, new String(world, StandardCharsets.UTF_8),
+            source.getInt(offset + OFFSET_OLD), source.getInt(offset + OFFSET_NEW),
+            actorMsb == 0L && actorLsb == 0L ? null : new UUID(actorMsb, actorLsb),
+            ChangeSource.fromId(source.get(offset + OFFSET_SOURCE)));
+    }
+
+    private int checksum(ByteBuffer source, int offset) {
+        crc.reset();
+        crc.update(source.slice(offset, OFFSET_CRC));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Cuts a UTF-8 encoded world name to the record's name field without splitting a character.
+     */
+    private static byte[] truncateUtf8(byte[] bytes) {
+        if (bytes.length <= MAX_WORLD_BYTES) {
+            return bytes;
+        }
+        int length = MAX_WORLD_BYTES;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] truncated = new byte[length];
+        System.arraycopy(bytes, 0, truncated, 0, length);
+        return truncated;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+}
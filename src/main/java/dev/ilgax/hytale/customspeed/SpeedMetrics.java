@@ -0,0 +1,270 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead counters and latency histograms for the speed change hot path.
+ * Counters are striped ({@link LongAdder}) and histograms use fixed buckets, so recording never allocates.
+ */
+public class SpeedMetrics {
+    private final LongAdder speedChanges = new LongAdder();
+    private final LongAdder applyFailures = new LongAdder();
+    private final LongAdder saveFailures = new LongAdder();
+    private final LongAdder notificationsDelivered = new LongAdder();
+
+    private final LatencyHistogram applyLatency = new LatencyHistogram();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LatencyHistogram notifyLatency = new LatencyHistogram();
+
+    // Completed time spent at each speed level, indexed by hundredths of a multiplier
+    private final AtomicLongArray nanosAtLevel = new AtomicLongArray(SpeedUnits.MAX_HUNDREDTHS + 1);
+    private final Map<String, WorldLevel> worldLevels = new ConcurrentHashMap<>();
+
+    public void recordSpeedChange() {
+        speedChanges.increment();
+    }
+
+    public void recordApply(long nanos, boolean success) {
+        applyLatency.record(nanos);
+        if (!success) {
+            applyFailures.increment();
+        }
+    }
+
+    public void recordSave(long nanos, boolean success) {
+        saveLatency.record(nanos);
+        if (!success) {
+            saveFailures.increment();
+        }
+    }
+
+    public void recordNotification(long nanos) {
+        notifyLatency.record(nanos);
+        notificationsDelivered.increment();
+    }
+
+    /**
+     * Records that a world now runs at the given dilation; the time spent at its previous one is accounted. Fed with
+     * the dilation actually applied, so governor caps, freezes, probes and skips count at the speed they ran.
+     *
+     * @param worldName The world name
+     * @param hundredths The world's new dilation in hundredths
+     */
+    public void recordSpeedLevel(String worldName, int hundredths) {
+        int level = SpeedUnits.clampToLattice(hundredths);
+        long now = System.nanoTime();
+        while (true) {
+            WorldLevel worldLevel = worldLevels.computeIfAbsent(worldName, name -> new WorldLevel(level, now));
+            synchronized (worldLevel) {
+                if (worldLevel.removed) {
+                    // Lost a race with removeWorld, the world is tracked afresh
+                    continue;
+                }
+                nanosAtLevel.addAndGet(worldLevel.level, now - worldLevel.sinceNanos);
+                worldLevel.level = level;
+                worldLevel.sinceNanos = now;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a removed world; the time spent at its last speed is accounted.
+     *
+     * @param worldName The world name
+     */
+    public void removeWorld(String worldName) {
+        WorldLevel worldLevel = worldLevels.remove(worldName);
+        if (worldLevel == null) {
+            return;
+        }
+        synchronized (worldLevel) {
+            nanosAtLevel.addAndGet(worldLevel.level, System.nanoTime() - worldLevel.sinceNanos);
+            worldLevel.removed = true;
+        }
+    }
+
+    /**
+     * @param speed A speed level
+     * @return Total time all worlds spent at this level in nanoseconds, including the ongoing stretch
+     */
+    public long getNanosAtLevel(float speed) {
+        int level = SpeedUnits.clampToLattice(SpeedUnits.toHundredths(speed));
+        long nanos = nanosAtLevel.get(level);
+        long now = System.nanoTime();
+        for (WorldLevel worldLevel : worldLevels.values()) {
+            synchronized (worldLevel) {
+                if (!worldLevel.removed && worldLevel.level == level) {
+                    nanos += now - worldLevel.sinceNanos;
+                }
+            }
+        }
+        return nanos;
+    }
+
+    public long getSpeedChanges() {
+        return speedChanges.sum();
+    }
+
+    public long getApplyFailures() {
+        return applyFailures.sum();
+    }
+
+    public long getSaveFailures() {
+        return saveFailures.sum();
+    }
+
+    public long getNotificationsDelivered() {
+        return notificationsDelivered.sum();
+    }
+
+    public LatencyHistogram getApplyLatency() {
+        return applyLatency;
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    public LatencyHistogram getNotifyLatency() {
+        return notifyLatency;
+    }
+
+    /**
+     * Finds the speed level with the most accumulated time, in one pass over the levels.
+     *
+     * @return The level and its time; normal speed if nothing was recorded
+     */
+    public LevelTime getMostUsedLevel() {
+        OngoingLevels ongoing = snapshotOngoing();
+        int best = SpeedUnits.NORMAL_HUNDREDTHS;
+        long bestNanos = nanosAtLevel.get(best) + ongoing.nanosAt(best);
+        for (int level = 0; level <= SpeedUnits.MAX_HUNDREDTHS; level++) {
+            long nanos = nanosAtLevel.get(level) + ongoing.nanosAt(level);
+            if (nanos > bestNanos) {
+                best = level;
+                bestNanos = nanos;
+            }
+        }
+        return new LevelTime(SpeedUnits.toSpeed(best), bestNanos);
+    }
+
+    /**
+     * Appends all metrics in Prometheus text exposition format.
+     *
+     * @param out Target buffer
+     */
+    public void appendPrometheus(StringBuilder out) {
+        appendCounter(out, "customspeed_speed_changes_total", "Speed changes applied", getSpeedChanges());
+        appendCounter(out, "customspeed_apply_failures_total", "Failed dilation applies", getApplyFailures());
+        appendCounter(out, "customspeed_save_failures_total", "Failed config saves", getSaveFailures());
+        appendCounter(out, "customspeed_notifications_total", "Speed notifications delivered", getNotificationsDelivered());
+
+        applyLatency.appendPrometheus(out, "customspeed_apply_seconds", "Time to apply a dilation");
+        saveLatency.appendPrometheus(out, "customspeed_save_seconds", "Time to save the config");
+        notifyLatency.appendPrometheus(out, "customspeed_notify_seconds", "Time to dispatch a speed notification");
+
+        out.append("# HELP customspeed_time_at_speed_seconds Time spent at each speed level, summed over worlds\n");
+        out.append("# TYPE customspeed_time_at_speed_seconds counter\n");
+        OngoingLevels ongoing = snapshotOngoing();
+        for (int level = 0; level <= SpeedUnits.MAX_HUNDREDTHS; level++) {
+            long nanos = nanosAtLevel.get(level) + ongoing.nanosAt(level);
+            if (nanos > 0) {
+                out.append("customspeed_time_at_speed_seconds{speed=\"")
+                    .append(SpeedUnits.toSpeed(level)).append("\"} ")
+                    .append(nanos / 1_000_000_000.0).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Appends a single counter in Prometheus text exposition format.
+     */
+    public static void appendCounter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Captures the ongoing stretch of every world, sized by the worlds rather than the levels.
+     */
+    private OngoingLevels snapshotOngoing() {
+        int capacity = worldLevels.size() + 1;
+        int[] levels = new int[capacity];
+        long[] nanos = new long[capacity];
+        int count = 0;
+        long now = System.nanoTime();
+        for (WorldLevel worldLevel : worldLevels.values()) {
+            if (count == capacity) {
+                // Worlds added while iterating start at zero time anyway
+                break;
+            }
+            synchronized (worldLevel) {
+                if (!worldLevel.removed) {
+                    levels[count] = worldLevel.level;
+                    nanos[count] = now - worldLevel.sinceNanos;
+                    count++;
+                }
+            }
+        }
+        return new OngoingLevels(levels, nanos, count);
+    }
+
+    /**
+     * Speed level with its accumulated time.
+     */
+    public static final class LevelTime {
+        private final float speed;
+        private final long nanos;
+
+        private LevelTime(float speed, long nanos) {
+            this.speed = speed;
+            this.nanos = nanos;
+        }
+
+        public float getSpeed() {
+            return speed;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    private static final class OngoingLevels {
+        private final int[] levels;
+        private final long[] nanos;
+        private final int count;
+
+        private OngoingLevels(int[] levels, long[] nanos, int count) {
+            this.levels = levels;
+            this.nanos = nanos;
+            this.count = count;
+        }
+
+        private long nanosAt(int level) {
+            long sum = 0L;
+            for (int i = 0; i < count; i++) {
+                if (levels[i] == level) {
+                    sum += nanos[i];
+                }
+            }
+            return sum;
+        }
+    }
+
+    private static final class WorldLevel {
+        private int level;
+        private long sinceNanos;
+        private boolean removed;
+
+        private WorldLevel(int level, long sinceNanos) {
+            this.level = level;
+            this.sinceNanos = sinceNanos;
+        }
+    }
+}
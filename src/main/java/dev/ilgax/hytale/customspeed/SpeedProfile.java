@@ -0,0 +1,118 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import java.util.Objects;
+
+/**
+ * A named speed the plugin switches to on a schedule, e.g. 2.0x every night while few players are online.
+ */
+public class SpeedProfile {
+    private String name = "";
+    private String schedule = "";
+    private float speed = SpeedConstants.NORMAL_SPEED;
+    // Empty = every world
+    private String world = "";
+    // Player-count conditions checked when the schedule fires; negative = no limit
+    private int minPlayers = -1;
+    private int maxPlayers = -1;
+    // Ramp duration; negative = the configured default ramp
+    private float rampSeconds = -1.0f;
+
+    public SpeedProfile() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(String schedule) {
+        this.schedule = schedule;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public void setWorld(String world) {
+        this.world = world;
+    }
+
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    public void setMinPlayers(int minPlayers) {
+        this.minPlayers = minPlayers;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public void setMaxPlayers(int maxPlayers) {
+        this.maxPlayers = maxPlayers;
+    }
+
+    public float getRampSeconds() {
+        return rampSeconds;
+    }
+
+    public void setRampSeconds(float rampSeconds) {
+        this.rampSeconds = rampSeconds;
+    }
+
+    /**
+     * @param players Number of players online in the profile's world (or the whole server)
+     * @return true if the player-count conditions allow the profile to apply
+     */
+    public boolean acceptsPlayerCount(int players) {
+        return (minPlayers < 0 || players >= minPlayers) && (maxPlayers < 0 || players <= maxPlayers);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SpeedProfile)) {
+            return false;
+        }
+        SpeedProfile other = (SpeedProfile) o;
+        return name.equals(other.name) && schedule.equals(other.schedule) && speed == other.speed
+            && world.equals(other.world) && minPlayers == other.minPlayers && maxPlayers == other.maxPlayers
+            && rampSeconds == other.rampSeconds;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, schedule, speed, world, minPlayers, maxPlayers, rampSeconds);
+    }
+
+    public static final BuilderCodec<SpeedProfile> CODEC = BuilderCodec.builder(SpeedProfile.class, SpeedProfile::new)
+            .append(new KeyedCodec<>("Name", Codec.STRING), SpeedProfile::setName, SpeedProfile::getName).add()
+            .append(new KeyedCodec<>("Schedule", Codec.STRING), SpeedProfile::setSchedule, SpeedProfile::getSchedule).add()
+            .append(new KeyedCodec<>("Speed", Codec.FLOAT), SpeedProfile::setSpeed, SpeedProfile::getSpeed).add()
+            .append(new KeyedCodec<>("World", Codec.STRING), SpeedProfile::setWorld, SpeedProfile::getWorld).add()
+            .append(new KeyedCodec<>("MinPlayers", Codec.INTEGER), SpeedProfile::setMinPlayers, SpeedProfile::getMinPlayers).add()
+            .append(new KeyedCodec<>("MaxPlayers", Codec.INTEGER), SpeedProfile::setMaxPlayers, SpeedProfile::getMaxPlayers).add()
+            .append(new KeyedCodec<>("RampSeconds", Codec.FLOAT), SpeedProfile::setRampSeconds, SpeedProfile::getRampSeconds).add()
+            .build();
+}
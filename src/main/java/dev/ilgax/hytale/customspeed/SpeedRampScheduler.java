@@ -0,0 +1,222 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interpolates speed changes over time instead of applying them in a single step.
+ * <p>
+ * All ramps share one repeating task. Each tick computes the interpolated speed of every active ramp and only
+ * pushes a dilation update when the value, quantized to hundredths, actually changed.
+ * <p>
+ * Every world has a generation that moves whenever its ramp is replaced or cancelled. Intermediate values carry the
+ * generation of their ramp and the world drops them on its own thread once it moved, so a value still queued when a
+ * ramp is cancelled can never land after the change that cancelled it.
+ */
+public class SpeedRampScheduler {
+    private final ConditionalApplier applier;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Ramp> ramps = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Object taskLock = new Object();
+
+    private ScheduledFuture<?> task;
+
+    /**
+     * @param applier Pushes an intermediate dilation value to a world
+     */
+    public SpeedRampScheduler(ConditionalApplier applier) {
+        this.applier = applier;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Ramp");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts ramping a world towards a target speed. If the world is already ramping, the new ramp starts from the
+     * speed reached so far and replaces the old one, whose future completes with {@link Outcome#SUPERSEDED}.
+     *
+     * @param world The world to ramp
+     * @param from The speed to ramp from if the world is not already ramping
+     * @param to The target speed
+     * @param durationMs Ramp duration in milliseconds
+     * @param curve Interpolation curve
+     * @return Future completed with {@link Outcome#APPLIED} once the target speed has been applied
+     */
+    public CompletableFuture<Outcome> rampTo(World world, float from, float to, long durationMs, RampCurve curve) {
+        String worldName = world.getName();
+        long now = System.nanoTime();
+        long durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+
+        // The ramp is complete before it is published, so the ramp thread never sees a half-built one
+        AtomicLong generation = generation(worldName);
+        while (true) {
+            Ramp previous = ramps.get(worldName);
+            long current = generation.incrementAndGet();
+            Ramp ramp = previous != null
+                ? new Ramp(world, generation, current, previous.valueAt(now), previous.lastApplied, to, now, durationNanos, curve)
+                : new Ramp(world, generation, current, from, SpeedUnits.toHundredths(from), to, now, durationNanos, curve);
+            boolean installed = previous != null ? ramps.replace(worldName, previous, ramp) : ramps.putIfAbsent(worldName, ramp) == null;
+            if (installed) {
+                if (previous != null) {
+                    previous.completion.complete(Outcome.SUPERSEDED);
+                }
+                ensureRunning();
+                return ramp.completion;
+            }
+        }
+    }
+
+    /**
+     * Stops any ramp running on a world, e.g. because a change is being applied instantly.
+     * The stopped ramp's future completes with {@link Outcome#SUPERSEDED}.
+     *
+     * @param worldName The world name
+     */
+    public void cancel(String worldName) {
+        // Moved before the ramp goes away, so its queued values are dropped before the caller applies anything
+        generation(worldName).incrementAndGet();
+        Ramp previous = ramps.remove(worldName);
+        if (previous != null) {
+            previous.completion.complete(Outcome.SUPERSEDED);
+        }
+    }
+
+    /**
+     * @param worldName The world name
+     * @return true if the world is currently ramping
+     */
+    public boolean isRamping(String worldName) {
+        return ramps.containsKey(worldName);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        ramps.clear();
+    }
+
+    private AtomicLong generation(String worldName) {
+        return generations.computeIfAbsent(worldName, name -> new AtomicLong());
+    }
+
+    private void ensureRunning() {
+        synchronized (taskLock) {
+            if (task == null) {
+                task = executor.scheduleAtFixedRate(this::tick, 0, SpeedConstants.RAMP_TICK_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+
+        Iterator<Map.Entry<String, Ramp>> iterator = ramps.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Ramp> entry = iterator.next();
+            Ramp ramp = entry.getValue();
+            if (!ramp.isCurrent()) {
+                // Cancelled or replaced since the iterator saw it
+                if (ramps.remove(entry.getKey(), ramp)) {
+                    ramp.completion.complete(Outcome.SUPERSEDED);
+                }
+                continue;
+            }
+            boolean finished = now - ramp.startNanos >= ramp.durationNanos;
+            int quantized = SpeedUnits.toHundredths(finished ? ramp.to : ramp.valueAt(now));
+
+            if (quantized != ramp.lastApplied || finished) {
+                ramp.lastApplied = quantized;
+                CompletableFuture<Void> applied = applier.apply(ramp.world, SpeedUnits.toSpeed(quantized), ramp::isCurrent);
+
+                if (finished) {
+                    ramps.remove(entry.getKey(), ramp);
+                    applied.whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            ramp.completion.completeExceptionally(error);
+                        } else {
+                            ramp.completion.complete(Outcome.APPLIED);
+                        }
+                    });
+                } else {
+                    applied.exceptionally(error -> {
+                        // Abort the ramp; the change pipeline rolls back on the failed future
+                        if (ramps.remove(entry.getKey(), ramp)) {
+                            ramp.completion.completeExceptionally(error);
+                        }
+                        return null;
+                    });
+                }
+            }
+        }
+
+        synchronized (taskLock) {
+            if (ramps.isEmpty() && task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+    }
+
+    private static final class Ramp {
+        private final World world;
+        private final AtomicLong worldGeneration;
+        private final long generation;
+        private final float to;
+        private final long startNanos;
+        private final long durationNanos;
+        private final RampCurve curve;
+        private final float from;
+        private final CompletableFuture<Outcome> completion = new CompletableFuture<>();
+
+        // Only touched by the ramp thread once the ramp is published
+        private volatile int lastApplied;
+
+        private Ramp(World world, AtomicLong worldGeneration, long generation, float from, int lastApplied, float to,
+                     long startNanos, long durationNanos, RampCurve curve) {
+            this.world = world;
+            this.worldGeneration = worldGeneration;
+            this.generation = generation;
+            this.from = from;
+            this.lastApplied = lastApplied;
+            this.to = to;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.curve = curve;
+        }
+
+        /**
+         * @return false once a newer ramp or an instant change took over the world
+         */
+        private boolean isCurrent() {
+            return worldGeneration.get() == generation;
+        }
+
+        private float valueAt(long nanos) {
+            if (durationNanos <= 0) {
+                return to;
+            }
+            float t = Math.min(1.0f, (float) (nanos - startNanos) / durationNanos);
+            return from + (to - from) * curve.apply(t);
+        }
+    }
+
+    /**
+     * How a ramp ended without error.
+     */
+    public enum Outcome {
+        /** The ramp reached its target speed. */
+        APPLIED,
+        /** A newer change replaced the ramp before it finished; what it was meant to do is up to that change now. */
+        SUPERSEDED
+    }
+}
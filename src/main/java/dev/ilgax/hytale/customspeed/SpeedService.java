@@ -0,0 +1,92 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Stable API for other plugins that need to follow the game speed, e.g. to scale their own timers and cooldowns.
+ * Obtain it from {@link CustomSpeedPlugin#getSpeedService()}.
+ * <p>
+ * The speed reported here is the dilation a world actually runs at: it follows ramps step by step and includes the
+ * cap of the load governor, so it can differ from the speed shown by {@code /speed}. Reads are lock-free and cheap
+ * enough to call on every tick, but listeners make polling unnecessary.
+ */
+public interface SpeedService {
+    /**
+     * @param worldName The world name
+     * @return The world's current time dilation; {@link SpeedConstants#NORMAL_SPEED} if none was applied yet
+     */
+    float getSpeed(String worldName);
+
+    /**
+     * @param world The world
+     * @return The world's current time dilation
+     */
+    default float getSpeed(World world) {
+        return getSpeed(world.getName());
+    }
+
+    /**
+     * Registers a listener called once every time a world's dilation changes, on the thread that applied it.
+     * Listeners must be quick and must not block.
+     *
+     * @param listener The listener
+     */
+    void addListener(Listener listener);
+
+    /**
+     * Registers a listener called on the given executor every time a world's dilation changes.
+     *
+     * @param listener The listener
+     * @param executor Executor the listener runs on, e.g. a world's executor
+     */
+    void addListener(Listener listener, Executor executor);
+
+    /**
+     * @param listener A registered listener
+     * @return true if it was registered
+     */
+    boolean removeListener(Listener listener);
+
+    /**
+     * Converts a real-time duration into the game time that passes in it at the world's current speed,
+     * e.g. 10 s at 2.0x are 20 s of game time.
+     *
+     * @param worldName The world name
+     * @param wallTime The real-time duration
+     * @return The game-time duration
+     */
+    default Duration toGameTime(String worldName, Duration wallTime) {
+        return scale(wallTime, getSpeed(worldName));
+    }
+
+    /**
+     * Converts a game-time duration into the real time it takes at the world's current speed,
+     * e.g. a 20 s game-time cooldown lasts 10 s at 2.0x.
+     *
+     * @param worldName The world name
+     * @param gameTime The game-time duration
+     * @return The real-time duration
+     */
+    default Duration toWallTime(String worldName, Duration gameTime) {
+        return scale(gameTime, 1.0 / getSpeed(worldName));
+    }
+
+    private static Duration scale(Duration duration, double factor) {
+        return Duration.ofNanos(Math.round(duration.toNanos() * factor));
+    }
+
+    /**
+     * Receives dilation changes.
+     */
+    @FunctionalInterface
+    interface Listener {
+        /**
+         * @param worldName The world whose dilation changed
+         * @param previousSpeed The dilation before the change
+         * @param speed The new dilation
+         */
+        void onSpeedChanged(String worldName, float previousSpeed, float speed);
+    }
+}
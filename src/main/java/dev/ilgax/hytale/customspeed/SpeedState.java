@@ -0,0 +1,87 @@
+package dev.ilgax.hytale.customspeed;
+
+/**
+ * Immutable snapshot of the speed settings. Every modification produces a new snapshot with a higher version,
+ * so a holder can tell whether the state changed since it was read.
+ * <p>
+ * Speeds are held as integer hundredths (see {@link SpeedUnits}); the float getters are derived views.
+ */
+public final class SpeedState {
+    public static final SpeedState DEFAULT = new SpeedState(1, 1_000,
+        SpeedUnits.NORMAL_HUNDREDTHS, SpeedUnits.DEFAULT_TOGGLE_HUNDREDTHS, 0L);
+
+    private final int min;
+    private final int max;
+    private final int current;
+    private final int toggleTarget;
+    private final long version;
+
+    private SpeedState(int min, int max, int current, int toggleTarget, long version) {
+        this.min = min;
+        this.max = max;
+        this.current = current;
+        this.toggleTarget = toggleTarget;
+        this.version = version;
+    }
+
+    public int getMinHundredths() {
+        return min;
+    }
+
+    public int getMaxHundredths() {
+        return max;
+    }
+
+    public int getCurrentHundredths() {
+        return current;
+    }
+
+    public int getToggleTargetHundredths() {
+        return toggleTarget;
+    }
+
+    public float getMinSpeed() {
+        return SpeedUnits.toSpeed(min);
+    }
+
+    public float getMaxSpeed() {
+        return SpeedUnits.toSpeed(max);
+    }
+
+    public float getCurrentSpeed() {
+        return SpeedUnits.toSpeed(current);
+    }
+
+    public float getToggleTargetSpeed() {
+        return SpeedUnits.toSpeed(toggleTarget);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public SpeedState withBounds(int min, int max) {
+        return new SpeedState(min, max, current, toggleTarget, version + 1);
+    }
+
+    public SpeedState withCurrent(int current) {
+        return new SpeedState(min, max, current, toggleTarget, version + 1);
+    }
+
+    public SpeedState withToggleTarget(int toggleTarget) {
+        return new SpeedState(min, max, current, toggleTarget, version + 1);
+    }
+
+    /**
+     * Replaces current and toggle target speed together so they can never be observed out of sync.
+     */
+    public SpeedState withSpeeds(int current, int toggleTarget) {
+        return new SpeedState(min, max, current, toggleTarget, version + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "SpeedState{current=" + getCurrentSpeed() + ", toggleTarget=" + getToggleTargetSpeed()
+            + ", min=" + getMinSpeed() + ", max=" + getMaxSpeed() + ", version=" + version + "}";
+    }
+}
@@ -0,0 +1,331 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Runtime speed state (current and toggle target speed of the default state and of every world) in a small binary
+ * file with a fixed layout.
+ * <p>
+ * The file is a header followed by fixed-size slots, one per world. A change rewrites only its world's slot with a
+ * single positional write, so persisting a toggle costs one small write instead of re-encoding the JSON config.
+ * Every slot carries a CRC. A damaged header makes the whole file corrupt and the caller falls back to the speeds in
+ * the config; a damaged slot only drops its own world, whose slot is then reused like the ones freed by
+ * {@link #remove(String)}.
+ * <p>
+ * Durability: a write reaches the OS right away, so it survives the process dying. It is forced to the disk within
+ * {@link SpeedConstants#STATE_FORCE_DELAY_MS}; writes in that window share one force on a background thread, so a
+ * burst of changes costs one sync. A power loss can therefore lose up to that window of changes, and a torn slot
+ * is dropped on read by its CRC. {@link #rewrite(Map)} and {@link #close()} force before they return.
+ */
+public class SpeedStateFile {
+    // Header layout: magic, layout version, CRC of the two
+    private static final int HEADER_SIZE = 16;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_LAYOUT = 8;
+    private static final int OFFSET_HEADER_CRC = 12;
+    private static final long MAGIC = 0x4353_5354_4154_4501L;
+    private static final int LAYOUT_VERSION = 1;
+
+    // Slot layout: current speed, toggle target speed, in-use flag, world name, CRC of everything before it
+    private static final int SLOT_SIZE = 128;
+    private static final int OFFSET_CURRENT = 0;
+    private static final int OFFSET_TOGGLE_TARGET = 4;
+    private static final int OFFSET_IN_USE = 8;
+    private static final int OFFSET_NAME_LENGTH = 9;
+    private static final int OFFSET_NAME = 10;
+    private static final int MAX_NAME_BYTES = 112;
+    private static final int OFFSET_SLOT_CRC = SLOT_SIZE - 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer slotBuffer = ByteBuffer.allocate(SLOT_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService forcer;
+
+    // Slot index of every stored world, and the free slots below slotCount, guarded by this
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final BitSet freeSlots = new BitSet();
+    private int slotCount;
+    private int corruptSlots;
+    private long writes;
+    private boolean forceScheduled;
+    private IOException forceFailure;
+
+    private SpeedStateFile(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        this.forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-StateFile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the state file, creating an empty one if it does not exist.
+     *
+     * @param file Path of the state file
+     * @return The open file
+     * @throws IOException if the file cannot be opened
+     */
+    public static SpeedStateFile open(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        return new SpeedStateFile(file, FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * @return Path of the state file
+     */
+    public Path getPath() {
+        return file;
+    }
+
+    /**
+     * Reads every stored state.
+     *
+     * @return Stored speeds per world name; the default state is stored under the empty name. Empty if the file was
+     *         just created. Worlds in corrupt slots are left out, see {@link #getCorruptSlots()}.
+     * @throws IOException if the file cannot be read or its header is corrupt
+     */
+    public synchronized Map<String, StoredSpeed> read() throws IOException {
+        slots.clear();
+        freeSlots.clear();
+        slotCount = 0;
+        corruptSlots = 0;
+        Map<String, StoredSpeed> states = new LinkedHashMap<>();
+
+        long size = channel.size();
+        if (size == 0L) {
+            return states;
+        }
+        if (size < HEADER_SIZE || (size - HEADER_SIZE) % SLOT_SIZE != 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("State file has an invalid size: " + size);
+        }
+
+        ByteBuffer contents = ByteBuffer.allocate((int) size);
+        while (contents.hasRemaining() && channel.read(contents, contents.position()) >= 0) {
+            // Keep reading until the whole file is in memory
+        }
+        if (contents.getLong(OFFSET_MAGIC) != MAGIC || contents.getInt(OFFSET_LAYOUT) != LAYOUT_VERSION
+            || contents.getInt(OFFSET_HEADER_CRC) != checksum(contents, 0, OFFSET_HEADER_CRC)) {
+            throw new IOException("State file has an invalid header");
+        }
+
+        int count = (int) ((size - HEADER_SIZE) / SLOT_SIZE);
+        for (int slot = 0; slot < count; slot++) {
+            int offset = HEADER_SIZE + slot * SLOT_SIZE;
+            if (contents.get(offset + OFFSET_IN_USE) == 0) {
+                freeSlots.set(slot);
+                continue;
+            }
+            if (contents.getInt(offset + OFFSET_SLOT_CRC) != checksum(contents, offset, OFFSET_SLOT_CRC)) {
+                // A torn write only loses this world, the slot is overwritten by the next new world
+                corruptSlots++;
+                freeSlots.set(slot);
+                continue;
+            }
+
+            int nameLength = Math.min(MAX_NAME_BYTES, contents.get(offset + OFFSET_NAME_LENGTH) & 0xFF);
+            byte[] name = new byte[nameLength];
+            contents.get(offset + OFFSET_NAME, name);
+            String world = new String(name, StandardCharsets.UTF_8);
+            states.put(world, new StoredSpeed(contents.getInt(offset + OFFSET_CURRENT), contents.getInt(offset + OFFSET_TOGGLE_TARGET)));
+            slots.put(world, slot);
+        }
+        slotCount = count;
+        return states;
+    }
+
+    /**
+     * Replaces the whole file, e.g. after it was found corrupt or when migrating speeds from the config.
+     *
+     * @param states Speeds per world name, the default state under ""
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void rewrite(Map<String, StoredSpeed> states) throws IOException {
+        channel.truncate(0L);
+        slots.clear();
+        freeSlots.clear();
+        slotCount = 0;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putLong(OFFSET_MAGIC, MAGIC);
+        header.putInt(OFFSET_LAYOUT, LAYOUT_VERSION);
+        header.putInt(OFFSET_HEADER_CRC, checksum(header, 0, OFFSET_HEADER_CRC));
+        writeFully(header, 0L);
+
+        for (Map.Entry<String, StoredSpeed> entry : states.entrySet()) {
+            write(entry.getKey(), entry.getValue().getCurrentHundredths(), entry.getValue().getToggleTargetHundredths());
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Stores one world's state in place.
+     *
+     * @param world The world name, or "" for the default state
+     * @param currentHundredths The current speed
+     * @param toggleTargetHundredths The toggle target speed
+     * @throws IOException if the slot cannot be written or the name does not fit into a slot
+     */
+    public synchronized void write(String world, int currentHundredths, int toggleTargetHundredths) throws IOException {
+        byte[] name = world.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IOException("World name is too long for the state file: " + world);
+        }
+
+        Integer slot = slots.get(world);
+        if (slot == null) {
+            int free = freeSlots.nextSetBit(0);
+            if (free >= 0) {
+                freeSlots.clear(free);
+                slot = free;
+            } else {
+                slot = slotCount++;
+            }
+            slots.put(world, slot);
+        }
+
+        ByteBuffer buffer = slotBuffer;
+        Arrays.fill(buffer.array(), (byte) 0);
+        buffer.putInt(OFFSET_CURRENT, currentHundredths);
+        buffer.putInt(OFFSET_TOGGLE_TARGET, toggleTargetHundredths);
+        buffer.put(OFFSET_IN_USE, (byte) 1);
+        buffer.put(OFFSET_NAME_LENGTH, (byte) name.length);
+        buffer.put(OFFSET_NAME, name);
+        buffer.putInt(OFFSET_SLOT_CRC, checksum(buffer, 0, OFFSET_SLOT_CRC));
+        writeFully(buffer, HEADER_SIZE + (long) slot * SLOT_SIZE);
+        writes++;
+        scheduleForce();
+    }
+
+    /**
+     * Removes one world's state. Its slot stays in the file, marked free for the next new world.
+     *
+     * @param world The world name
+     * @throws IOException if the slot cannot be written
+     */
+    public synchronized void remove(String world) throws IOException {
+        Integer slot = slots.remove(world);
+        if (slot != null) {
+            writeFully(ByteBuffer.allocate(SLOT_SIZE), HEADER_SIZE + (long) slot * SLOT_SIZE);
+            freeSlots.set(slot);
+            scheduleForce();
+        }
+    }
+
+    /**
+     * @return Number of slots the last {@link #read()} dropped because their CRC did not match
+     */
+    public synchronized int getCorruptSlots() {
+        return corruptSlots;
+    }
+
+    /**
+     * @return Number of slot writes performed since the file was opened
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Forces the file to disk and closes it.
+     */
+    public synchronized void close() {
+        forcer.shutdownNow();
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * Schedules a force unless one is already pending; writes until it runs are covered by it. A failure of the
+     * previous force is reported here, to the writer that comes after it.
+     *
+     * @throws IOException if the previous force failed; the write itself was done
+     */
+    private void scheduleForce() throws IOException {
+        if (!forceScheduled && !forcer.isShutdown()) {
+            forceScheduled = true;
+            forcer.schedule(this::force, SpeedConstants.STATE_FORCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        IOException failure = forceFailure;
+        if (failure != null) {
+            forceFailure = null;
+            throw new IOException("Earlier state file writes may not have reached the disk", failure);
+        }
+    }
+
+    private void force() {
+        synchronized (this) {
+            // Writes from here on schedule the next force
+            forceScheduled = false;
+        }
+        try {
+            // Outside the lock, so writers do not wait for the disk
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Closed meanwhile; close() forced it
+        } catch (IOException e) {
+            synchronized (this) {
+                forceFailure = e;
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private int checksum(ByteBuffer source, int offset, int length) {
+        crc.reset();
+        crc.update(source.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Speeds of one stored state, in hundredths.
+     */
+    public static final class StoredSpeed {
+        private final int currentHundredths;
+        private final int toggleTargetHundredths;
+
+        public StoredSpeed(int currentHundredths, int toggleTargetHundredths) {
+            this.currentHundredths = currentHundredths;
+            this.toggleTargetHundredths = toggleTargetHundredths;
+        }
+
+        public int getCurrentHundredths() {
+            return currentHundredths;
+        }
+
+        public int getToggleTargetHundredths() {
+            return toggleTargetHundredths;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-world speed state shared by several server processes on one host through a small memory-mapped file.
+ * <p>
+ * The file holds one slot per world name. A slot is claimed by the first process that publishes the world and keeps
+ * its name for the life of the file. Every slot is guarded by its own seqlock: a writer first takes the slot's owner
+ * word with compare-and-set, moves the sequence number to odd, writes the speeds and releases the sequence number
+ * with compare-and-set from the exact odd value it locked. Readers retry until they see the same even sequence
+ * number before and after reading, so they never block a writer and never see a half-written state. After every
+ * publish a file-wide change counter is bumped, so readers only scan the slots when something changed.
+ * <p>
+ * The owner word carries the writer's process id. A slot whose owner process no longer exists is taken over; a live
+ * owner is waited for, at most {@link SpeedConstants#SYNC_LOCK_TIMEOUT_MS}. A takeover moves the sequence number to
+ * a new odd value, so a writer that was wrongly taken for dead fails its release and publishes again. Process ids are
+ * only meaningful within one pid namespace, so processes in separate containers must not share a file.
+ * <p>
+ * Only the file is shared; there is no network service. Every process maps the same path, so several JVMs on one
+ * machine can be tested against each other directly.
+ */
+public class SpeedSyncFile {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Header layout: magic, change counter bumped after every publish
+    private static final int HEADER_SIZE = 64;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_CHANGES = 8;
+    private static final long MAGIC = 0x4353_5359_4E43_0002L;
+
+    // Slot layout: owner (pid and instance tag), sequence number, id of the last writer, current and toggle target
+    // speed, world name
+    private static final int SLOT_SIZE = 128;
+    private static final int OFFSET_OWNER = 0;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_WRITER = 16;
+    private static final int OFFSET_CURRENT = 24;
+    private static final int OFFSET_TOGGLE_TARGET = 28;
+    private static final int OFFSET_NAME_LENGTH = 32;
+    private static final int OFFSET_NAME = 36;
+    private static final int MAX_NAME_BYTES = SLOT_SIZE - OFFSET_NAME;
+
+    private static final int FILE_SIZE = HEADER_SIZE + SpeedConstants.SYNC_SLOTS * SLOT_SIZE;
+    private static final long PID = ProcessHandle.current().pid();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long instanceId;
+    private final long ownerToken;
+
+    private SpeedSyncFile(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0L);
+        this.instanceId = id;
+        // Never 0, even for pid 0, since the tag always has its lowest bit set
+        this.ownerToken = (PID << 32) | ((id & 0xFFFF_FFFFL) | 1L);
+    }
+
+    /**
+     * Maps the shared file, creating it if this is the first process to use it.
+     *
+     * @param file Path of the shared file; every instance must use the same one
+     * @return The mapped file
+     * @throws IOException if the file cannot be mapped or belongs to something else
+     */
+    public static SpeedSyncFile open(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+
+        // Racing first processes both install the same value
+        if (!LONGS.compareAndSet(buffer, OFFSET_MAGIC, 0L, MAGIC) && (long) LONGS.getVolatile(buffer, OFFSET_MAGIC) != MAGIC) {
+            channel.close();
+            throw new IOException("Not a speed sync file, or one written by an older version: " + file);
+        }
+        return new SpeedSyncFile(channel, buffer);
+    }
+
+    /**
+     * @return Id written by this process, used to ignore its own changes
+     */
+    public long getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Cheap check for changes: a single acquire read of the change counter.
+     *
+     * @return Number of publishes so far, by every process
+     */
+    public long getVersion() {
+        return (long) LONGS.getAcquire(buffer, OFFSET_CHANGES);
+    }
+
+    /**
+     * @return Number of slots in the file, i.e. the most worlds that can be synced
+     */
+    public int getSlotCount() {
+        return SpeedConstants.SYNC_SLOTS;
+    }
+
+    /**
+     * Reads a consistent snapshot of one slot.
+     *
+     * @param slot The slot index
+     * @return The slot's state, with version 0 if the slot was never claimed, or null if a writer kept the slot
+     *         locked for all attempts
+     */
+    public Snapshot read(int slot) {
+        int base = HEADER_SIZE + slot * SLOT_SIZE;
+        for (int attempt = 0; attempt < SpeedConstants.SYNC_READ_ATTEMPTS; attempt++) {
+            long before = (long) LONGS.getAcquire(buffer, base + OFFSET_SEQUENCE);
+            if ((before & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int current = buffer.getInt(base + OFFSET_CURRENT);
+            int toggleTarget = buffer.getInt(base + OFFSET_TOGGLE_TARGET);
+            long writer = buffer.getLong(base + OFFSET_WRITER);
+            int nameLength = Math.min(MAX_NAME_BYTES, Math.max(0, buffer.getInt(base + OFFSET_NAME_LENGTH)));
+            byte[] name = new byte[nameLength];
+            buffer.get(base + OFFSET_NAME, name);
+
+            // Keep the data reads above the second sequence read
+            VarHandle.acquireFence();
+            if ((long) LONGS.getOpaque(buffer, base + OFFSET_SEQUENCE) == before) {
+                return new Snapshot(slot, before, new String(name, StandardCharsets.UTF_8), current, toggleTarget, writer);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Publishes a world's speeds to every process. Blocks while another live process writes the world's slot.
+     *
+     * @param world The world name
+     * @param currentHundredths The current speed
+     * @param toggleTargetHundredths The toggle target speed
+     * @throws IllegalArgumentException if the world name does not fit into a slot
+     * @throws IllegalStateException if every slot belongs to another world, or the slot stayed locked by a live
+     *         process for {@link SpeedConstants#SYNC_LOCK_TIMEOUT_MS}
+     */
+    public void publish(String world, int currentHundredths, int toggleTargetHundredths) {
+        byte[] name = world.getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("World name cannot be synced: '" + world + "'");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SpeedConstants.SYNC_LOCK_TIMEOUT_MS);
+        while (true) {
+            int slot = findSlot(name);
+            if (slot < 0) {
+                throw new IllegalStateException("All " + SpeedConstants.SYNC_SLOTS + " sync slots are taken, world '"
+                    + world + "' cannot be synced");
+            }
+
+            int base = HEADER_SIZE + slot * SLOT_SIZE;
+            long locked = lock(base, deadline);
+            boolean ours;
+            boolean released;
+            try {
+                int claimedLength = buffer.getInt(base + OFFSET_NAME_LENGTH);
+                ours = claimedLength == 0 || nameEquals(base, name);
+                if (ours) {
+                    buffer.putInt(base + OFFSET_CURRENT, currentHundredths);
+                    buffer.putInt(base + OFFSET_TOGGLE_TARGET, toggleTargetHundredths);
+                    buffer.putLong(base + OFFSET_WRITER, instanceId);
+                    if (claimedLength == 0) {
+                        buffer.put(base + OFFSET_NAME, name);
+                        VarHandle.releaseFence();
+                        buffer.putInt(base + OFFSET_NAME_LENGTH, name.length);
+                    }
+                }
+            } finally {
+                // An odd sequence left behind would lock readers in every process out of the slot
+                released = release(base, locked);
+            }
+            if (ours && released) {
+                LONGS.getAndAdd(buffer, OFFSET_CHANGES, 1L);
+                return;
+            }
+            // Another world claimed the free slot first, or our write was taken over; try again
+        }
+    }
+
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * @return The slot already claimed by the world, else the first free slot, else -1
+     */
+    private int findSlot(byte[] name) {
+        int free = -1;
+        for (int slot = 0; slot < SpeedConstants.SYNC_SLOTS; slot++) {
+            int base = HEADER_SIZE + slot * SLOT_SIZE;
+            int length = buffer.getInt(base + OFFSET_NAME_LENGTH);
+            // A claimed name never changes; the length is written after it, so read the bytes after the length
+            VarHandle.acquireFence();
+            if (length == 0) {
+                if (free < 0) {
+                    free = slot;
+                }
+            } else if (nameEquals(base, name)) {
+                return slot;
+            }
+        }
+        return free;
+    }
+
+    private boolean nameEquals(int base, byte[] name) {
+        if (buffer.getInt(base + OFFSET_NAME_LENGTH) != name.length) {
+            return false;
+        }
+        byte[] stored = new byte[name.length];
+        buffer.get(base + OFFSET_NAME, stored);
+        return Arrays.equals(stored, name);
+    }
+
+    /**
+     * Takes a slot's owner word and moves its sequence number to an odd value owned by this writer.
+     *
+     * @return The odd sequence number to release from
+     */
+    private long lock(int base, long deadline) {
+        while (true) {
+            long owner = (long) LONGS.getVolatile(buffer, base + OFFSET_OWNER);
+            if (owner == 0L) {
+                if (LONGS.compareAndSet(buffer, base + OFFSET_OWNER, 0L, ownerToken)) {
+                    break;
+                }
+                continue;
+            }
+
+            long ownerPid = owner >>> 32;
+            if (ownerPid != PID && !isAlive(ownerPid) && LONGS.compareAndSet(buffer, base + OFFSET_OWNER, owner, ownerToken)) {
+                // The previous writer died holding the slot; its half-written state is overwritten by the caller
+                break;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Sync slot is still locked by process " + ownerPid);
+            }
+            Thread.onSpinWait();
+        }
+
+        // Only the owner moves the sequence number, but a writer wrongly taken for dead may still release it
+        while (true) {
+            long sequence = (long) LONGS.getVolatile(buffer, base + OFFSET_SEQUENCE);
+            long locked = (sequence & 1L) == 0 ? sequence + 1 : sequence + 2;
+            if (LONGS.compareAndSet(buffer, base + OFFSET_SEQUENCE, sequence, locked)) {
+                return locked;
+            }
+        }
+    }
+
+    /**
+     * Publishes the slot's new state and gives up its owner word.
+     *
+     * @return false if the slot was taken over in the meantime and the write may have been lost
+     */
+    private boolean release(int base, long locked) {
+        boolean released = LONGS.compareAndSet(buffer, base + OFFSET_SEQUENCE, locked, locked + 1);
+        LONGS.compareAndSet(buffer, base + OFFSET_OWNER, ownerToken, 0L);
+        return released;
+    }
+
+    private static boolean isAlive(long pid) {
+        return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    /**
+     * Consistent view of one slot.
+     */
+    public static final class Snapshot {
+        private final int slot;
+        private final long version;
+        private final String worldName;
+        private final int currentHundredths;
+        private final int toggleTargetHundredths;
+        private final long writer;
+
+        private Snapshot(int slot, long version, String worldName, int currentHundredths, int toggleTargetHundredths, long writer) {
+            this.slot = slot;
+            this.version = version;
+            this.worldName = worldName;
+            this.currentHundredths = currentHundredths;
+            this.toggleTargetHundredths = toggleTargetHundredths;
+            this.writer = writer;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        /**
+         * @return The slot's sequence number; 0 if the slot was never claimed
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return Name of the world the slot belongs to, empty if the slot was never claimed
+         */
+        public String getWorldName() {
+            return worldName;
+        }
+
+        public int getCurrentHundredths() {
+            return currentHundredths;
+        }
+
+        public int getToggleTargetHundredths() {
+            return toggleTargetHundredths;
+        }
+
+        /**
+         * @return Instance id of the process that published this state, 0 if nothing was published yet
+         */
+        public long getWriter() {
+            return writer;
+        }
+    }
+}
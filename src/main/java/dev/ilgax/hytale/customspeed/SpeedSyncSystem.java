@@ -0,0 +1,119 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.system.tick.TickingSystem;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ticking system that polls the {@link SpeedSyncFile} for world speeds published by other server processes, and
+ * publishes this process's changes.
+ * <p>
+ * Each tick costs one acquire read of the file's change counter. When it moved, the first world thread to notice
+ * scans the slots and hands on every slot that changed since, unless this process published it itself. Publishing
+ * may wait for a slot held by another process, so it runs on a background thread instead of the caller's.
+ */
+public class SpeedSyncSystem extends TickingSystem<EntityStore> {
+    private final SpeedSyncFile file;
+    private final Consumer<SpeedSyncFile.Snapshot> onRemoteChange;
+    private final Consumer<RuntimeException> onPublishError;
+    private final ExecutorService executor;
+    private final AtomicLong lastSeen = new AtomicLong(-1L);
+    private final AtomicBoolean scanning = new AtomicBoolean();
+    // Sequence number last handled per slot, only touched while scanning
+    private final long[] seenSlots;
+
+    /**
+     * @param file The shared state file
+     * @param onRemoteChange Receives world states published by other processes; must not block the world thread
+     * @param onPublishError Receives publishes that failed, on the publishing thread
+     */
+    public SpeedSyncSystem(SpeedSyncFile file, Consumer<SpeedSyncFile.Snapshot> onRemoteChange,
+                           Consumer<RuntimeException> onPublishError) {
+        this.file = file;
+        this.onRemoteChange = onRemoteChange;
+        this.onPublishError = onPublishError;
+        this.seenSlots = new long[file.getSlotCount()];
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void tick(float dt, int systemIndex, Store<EntityStore> store) {
+        if (file.getVersion() != lastSeen.get()) {
+            poll();
+        }
+    }
+
+    /**
+     * Hands on every slot that changed since the last poll. Returns at once if another thread is already polling.
+     */
+    public void poll() {
+        if (!scanning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Read first: a publish landing during the scan bumps the counter again and is picked up next tick
+            long version = file.getVersion();
+            boolean complete = true;
+            for (int slot = 0; slot < seenSlots.length; slot++) {
+                SpeedSyncFile.Snapshot snapshot = file.read(slot);
+                if (snapshot == null) {
+                    // Still being written, look again next tick
+                    complete = false;
+                    continue;
+                }
+                if (snapshot.getVersion() == seenSlots[slot]) {
+                    continue;
+                }
+                seenSlots[slot] = snapshot.getVersion();
+                if (snapshot.getWriter() != file.getInstanceId()) {
+                    onRemoteChange.accept(snapshot);
+                }
+            }
+            if (complete) {
+                lastSeen.set(version);
+            }
+        } finally {
+            scanning.set(false);
+        }
+    }
+
+    /**
+     * Publishes a world's speeds to the other processes in the background.
+     *
+     * @param worldName The world name
+     * @param state The world's new state
+     */
+    public void publish(String worldName, SpeedState state) {
+        int current = state.getCurrentHundredths();
+        int toggleTarget = state.getToggleTargetHundredths();
+        executor.execute(() -> {
+            try {
+                file.publish(worldName, current, toggleTarget);
+            } catch (RuntimeException e) {
+                onPublishError.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Finishes the publishes already queued, waiting at most as long as one publish may wait for its slot.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SpeedConstants.SYNC_LOCK_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
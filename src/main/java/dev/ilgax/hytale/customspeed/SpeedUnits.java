@@ -0,0 +1,43 @@
+package dev.ilgax.hytale.customspeed;
+
+/**
+ * Conversions between speed multipliers and the fixed-point representation used internally.
+ * <p>
+ * Speeds are stored as integer hundredths of a multiplier (1.0x = 100), which makes the valid range a bounded
+ * lattice with exact equality and integer clamping.
+ */
+public final class SpeedUnits {
+    // Highest representable speed (100.00x), matching the hard cap on MaxSpeed
+    public static final int MAX_HUNDREDTHS = 10_000;
+
+    public static final int NORMAL_HUNDREDTHS = 100;
+    public static final int DEFAULT_TOGGLE_HUNDREDTHS = 50;
+
+    /**
+     * @param speed A speed multiplier
+     * @return The multiplier rounded to the nearest hundredth
+     */
+    public static int toHundredths(float speed) {
+        return Math.round(speed * SpeedConstants.SPEED_ROUNDING_FACTOR);
+    }
+
+    /**
+     * @param hundredths A speed in hundredths
+     * @return The speed as a multiplier
+     */
+    public static float toSpeed(int hundredths) {
+        return hundredths / SpeedConstants.SPEED_ROUNDING_FACTOR;
+    }
+
+    /**
+     * @param hundredths A speed in hundredths
+     * @return The speed clamped into the representable lattice [0, {@link #MAX_HUNDREDTHS}]
+     */
+    public static int clampToLattice(int hundredths) {
+        return Math.max(0, Math.min(MAX_HUNDREDTHS, hundredths));
+    }
+
+    private SpeedUnits() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+}
@@ -8,13 +8,24 @@ public class SpeedValidator {
     }
 
     /**
-     * Validates if a speed multiplier is within acceptable bounds.
+     * Validates if a speed multiplier, rounded to hundredths, is within acceptable bounds.
      *
      * @param multiplier The speed multiplier to validate
      * @return true if valid, false otherwise
      */
     public boolean isValid(float multiplier) {
-        return multiplier >= config.getMinSpeed() && multiplier <= config.getMaxSpeed();
+        return isValid(SpeedUnits.toHundredths(multiplier));
+    }
+
+    /**
+     * Validates if a speed in hundredths is within acceptable bounds.
+     *
+     * @param hundredths The speed in hundredths
+     * @return true if valid, false otherwise
+     */
+    public boolean isValid(int hundredths) {
+        SpeedState state = config.getState();
+        return hundredths >= state.getMinHundredths() && hundredths <= state.getMaxHundredths();
     }
 
     /**
@@ -24,28 +35,50 @@ public class SpeedValidator {
      * @return The clamped value
      */
     public float clamp(float multiplier) {
-        return Math.max(config.getMinSpeed(), Math.min(config.getMaxSpeed(), multiplier));
+        return clamp(config.getState(), multiplier);
+    }
+
+    /**
+     * Clamps a speed multiplier to the bounds of a specific state snapshot.
+     *
+     * @param state The snapshot whose bounds apply
+     * @param multiplier The speed multiplier to clamp
+     * @return The clamped value
+     */
+    public float clamp(SpeedState state, float multiplier) {
+        return Math.max(state.getMinSpeed(), Math.min(state.getMaxSpeed(), multiplier));
+    }
+
+    /**
+     * Clamps a speed in hundredths to the bounds of a specific state snapshot.
+     *
+     * @param state The snapshot whose bounds apply
+     * @param hundredths The speed in hundredths
+     * @return The clamped value
+     */
+    public int clamp(SpeedState state, int hundredths) {
+        return Math.max(state.getMinHundredths(), Math.min(state.getMaxHundredths(), hundredths));
     }
 
     /**
-     * Rounds a speed value to avoid floating-point precision issues.
+     * Rounds a speed value to the nearest hundredth.
      *
      * @param speed The speed to round
      * @return The rounded speed
      */
     public float roundSpeed(float speed) {
-        return Math.round(speed * SpeedConstants.SPEED_ROUNDING_FACTOR) / SpeedConstants.SPEED_ROUNDING_FACTOR;
+        return SpeedUnits.toSpeed(SpeedUnits.toHundredths(speed));
     }
 
     /**
-     * Checks if two speeds are effectively equal within tolerance.
+     * Checks if two speeds are equal once rounded to hundredths.
      *
      * @param speed1 First speed
      * @param speed2 Second speed
-     * @return true if speeds are equal within tolerance
+     * @return true if both speeds map to the same hundredth
      */
     public boolean areSpeedsEqual(float speed1, float speed2) {
-        return Math.abs(speed1 - speed2) < SpeedConstants.FLOAT_TOLERANCE;
+        return SpeedUnits.toHundredths(speed1) == SpeedUnits.toHundredths(speed2);
     }
 
     /**
@@ -55,12 +88,42 @@ public class SpeedValidator {
      * @return Error message describing the validation failure
      */
     public String getValidationError(float multiplier) {
-        if (multiplier < config.getMinSpeed()) {
-            return "Speed multiplier must be at least " + config.getMinSpeed() + "!";
+        SpeedState state = config.getState();
+        int hundredths = SpeedUnits.toHundredths(multiplier);
+        if (hundredths < state.getMinHundredths()) {
+            return "Speed multiplier must be at least " + state.getMinSpeed() + "!";
+        }
+        if (hundredths > state.getMaxHundredths()) {
+            return "Speed multiplier must not exceed " + state.getMaxSpeed() + "!";
+        }
+        return "Speed multiplier must be between " + state.getMinSpeed() + " and " + state.getMaxSpeed() + "!";
+    }
+
+    /**
+     * Checks a speed zone: name, world, shape, size and a speed within the same bounds as any other speed.
+     *
+     * @param zone The zone to check
+     * @return Error message describing the first problem, or null if the zone is valid
+     */
+    public String getZoneValidationError(SpeedZone zone) {
+        if (zone.getName() == null || zone.getName().isEmpty()) {
+            return "Zone name must not be empty!";
+        }
+        if (zone.getWorld() == null || zone.getWorld().isEmpty()) {
+            return "Zone world must not be empty!";
+        }
+        if (zone.getZoneShape() == null) {
+            return "Unknown zone shape '" + zone.getShape() + "', use Box or Cylinder!";
+        }
+        if (zone.getZoneShape() == ZoneShape.CYLINDER && zone.getRadius() <= 0) {
+            return "Zone radius must be positive!";
+        }
+        if (!isValid(zone.getSpeed())) {
+            return getValidationError(zone.getSpeed());
         }
-        if (multiplier > config.getMaxSpeed()) {
-            return "Speed multiplier must not exceed " + config.getMaxSpeed() + "!";
+        if (ZoneGrid.countCells(zone) > SpeedConstants.MAX_ZONE_CELLS) {
+            return "Zone is too large!";
         }
-        return "Speed multiplier must be between " + config.getMinSpeed() + " and " + config.getMaxSpeed() + "!";
+        return null;
     }
 }
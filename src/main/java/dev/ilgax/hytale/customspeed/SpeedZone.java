@@ -0,0 +1,258 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import java.util.Objects;
+
+/**
+ * A region of a world that changes the speed of every entity inside it, e.g. a slow-motion arena.
+ * <p>
+ * A box spans {@code Min*} to {@code Max*}. A cylinder is centered on {@code CenterX}/{@code CenterZ} with
+ * {@code Radius} and spans {@code MinY} to {@code MaxY}; its other coordinates are ignored.
+ */
+public class SpeedZone {
+    private String name = "";
+    private String world = "";
+    private String shape = ZoneShape.BOX.getConfigName();
+    // Parsed once here instead of on every containment test
+    private ZoneShape zoneShape = ZoneShape.BOX;
+    private float speed = SpeedConstants.NORMAL_SPEED;
+    private double minX;
+    private double minY;
+    private double minZ;
+    private double maxX;
+    private double maxY;
+    private double maxZ;
+    private double centerX;
+    private double centerZ;
+    private double radius;
+
+    public SpeedZone() {
+    }
+
+    /**
+     * Creates a box zone.
+     */
+    public static SpeedZone box(String name, String world, float speed, double minX, double minY, double minZ,
+                                double maxX, double maxY, double maxZ) {
+        SpeedZone zone = new SpeedZone();
+        zone.name = name;
+        zone.world = world;
+        zone.setShape(ZoneShape.BOX.getConfigName());
+        zone.speed = speed;
+        zone.minX = Math.min(minX, maxX);
+        zone.minY = Math.min(minY, maxY);
+        zone.minZ = Math.min(minZ, maxZ);
+        zone.maxX = Math.max(minX, maxX);
+        zone.maxY = Math.max(minY, maxY);
+        zone.maxZ = Math.max(minZ, maxZ);
+        return zone;
+    }
+
+    /**
+     * Creates a cylinder zone.
+     */
+    public static SpeedZone cylinder(String name, String world, float speed, double centerX, double centerZ, double radius,
+                                     double minY, double maxY) {
+        SpeedZone zone = new SpeedZone();
+        zone.name = name;
+        zone.world = world;
+        zone.setShape(ZoneShape.CYLINDER.getConfigName());
+        zone.speed = speed;
+        zone.centerX = centerX;
+        zone.centerZ = centerZ;
+        zone.radius = radius;
+        zone.minY = Math.min(minY, maxY);
+        zone.maxY = Math.max(minY, maxY);
+        return zone;
+    }
+
+    /**
+     * @return The parsed shape, or null if the config names an unknown shape
+     */
+    public ZoneShape getZoneShape() {
+        return zoneShape;
+    }
+
+    /**
+     * @return true if the point lies inside the zone (bounds inclusive)
+     */
+    public boolean contains(double x, double y, double z) {
+        if (y < minY || y > maxY) {
+            return false;
+        }
+        if (zoneShape == ZoneShape.CYLINDER) {
+            double dx = x - centerX;
+            double dz = z - centerZ;
+            return dx * dx + dz * dz <= radius * radius;
+        }
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * @return true if the whole axis-aligned cube lies inside the zone
+     */
+    public boolean covers(double x0, double y0, double z0, double x1, double y1, double z1) {
+        // Both shapes are convex, so covering all corners means covering the cube
+        return contains(x0, y0, z0) && contains(x1, y0, z0) && contains(x0, y0, z1) && contains(x1, y0, z1)
+            && contains(x0, y1, z0) && contains(x1, y1, z0) && contains(x0, y1, z1) && contains(x1, y1, z1);
+    }
+
+    public double getBoundsMinX() {
+        return zoneShape == ZoneShape.CYLINDER ? centerX - radius : minX;
+    }
+
+    public double getBoundsMinZ() {
+        return zoneShape == ZoneShape.CYLINDER ? centerZ - radius : minZ;
+    }
+
+    public double getBoundsMaxX() {
+        return zoneShape == ZoneShape.CYLINDER ? centerX + radius : maxX;
+    }
+
+    public double getBoundsMaxZ() {
+        return zoneShape == ZoneShape.CYLINDER ? centerZ + radius : maxZ;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public void setWorld(String world) {
+        this.world = world;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public void setShape(String shape) {
+        this.shape = shape;
+        this.zoneShape = ZoneShape.fromName(shape);
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public void setMinX(double minX) {
+        this.minX = minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public void setMinY(double minY) {
+        this.minY = minY;
+    }
+
+    public double getMinZ() {
+        return minZ;
+    }
+
+    public void setMinZ(double minZ) {
+        this.minZ = minZ;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public void setMaxX(double maxX) {
+        this.maxX = maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public void setMaxY(double maxY) {
+        this.maxY = maxY;
+    }
+
+    public double getMaxZ() {
+        return maxZ;
+    }
+
+    public void setMaxZ(double maxZ) {
+        this.maxZ = maxZ;
+    }
+
+    public double getCenterX() {
+        return centerX;
+    }
+
+    public void setCenterX(double centerX) {
+        this.centerX = centerX;
+    }
+
+    public double getCenterZ() {
+        return centerZ;
+    }
+
+    public void setCenterZ(double centerZ) {
+        this.centerZ = centerZ;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SpeedZone)) {
+            return false;
+        }
+        SpeedZone other = (SpeedZone) o;
+        return name.equals(other.name) && world.equals(other.world) && shape.equals(other.shape) && speed == other.speed
+            && minX == other.minX && minY == other.minY && minZ == other.minZ
+            && maxX == other.maxX && maxY == other.maxY && maxZ == other.maxZ
+            && centerX == other.centerX && centerZ == other.centerZ && radius == other.radius;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, world, shape, speed, minX, minY, minZ, maxX, maxY, maxZ, centerX, centerZ, radius);
+    }
+
+    public static final BuilderCodec<SpeedZone> CODEC = BuilderCodec.builder(SpeedZone.class, SpeedZone::new)
+            .append(new KeyedCodec<>("Name", Codec.STRING), SpeedZone::setName, SpeedZone::getName).add()
+            .append(new KeyedCodec<>("World", Codec.STRING), SpeedZone::setWorld, SpeedZone::getWorld).add()
+            .append(new KeyedCodec<>("Shape", Codec.STRING), SpeedZone::setShape, SpeedZone::getShape).add()
+            .append(new KeyedCodec<>("Speed", Codec.FLOAT), SpeedZone::setSpeed, SpeedZone::getSpeed).add()
+            .append(new KeyedCodec<>("MinX", Codec.DOUBLE), SpeedZone::setMinX, SpeedZone::getMinX).add()
+            .append(new KeyedCodec<>("MinY", Codec.DOUBLE), SpeedZone::setMinY, SpeedZone::getMinY).add()
+            .append(new KeyedCodec<>("MinZ", Codec.DOUBLE), SpeedZone::setMinZ, SpeedZone::getMinZ).add()
+            .append(new KeyedCodec<>("MaxX", Codec.DOUBLE), SpeedZone::setMaxX, SpeedZone::getMaxX).add()
+            .append(new KeyedCodec<>("MaxY", Codec.DOUBLE), SpeedZone::setMaxY, SpeedZone::getMaxY).add()
+            .append(new KeyedCodec<>("MaxZ", Codec.DOUBLE), SpeedZone::setMaxZ, SpeedZone::getMaxZ).add()
+            .append(new KeyedCodec<>("CenterX", Codec.DOUBLE), SpeedZone::setCenterX, SpeedZone::getCenterX).add()
+            .append(new KeyedCodec<>("CenterZ", Codec.DOUBLE), SpeedZone::setCenterZ, SpeedZone::getCenterZ).add()
+            .append(new KeyedCodec<>("Radius", Codec.DOUBLE), SpeedZone::setRadius, SpeedZone::getRadius).add()
+            .build();
+}
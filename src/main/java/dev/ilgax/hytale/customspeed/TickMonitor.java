@@ -0,0 +1,109 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.dependency.Dependency;
+import com.hypixel.hytale.component.dependency.RootDependency;
+import com.hypixel.hytale.component.system.tick.TickingSystem;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ticking system that measures how long each world's ticks take to run.
+ * <p>
+ * A tick is timed from its start to its end: this system runs last in tick order, and {@link #getTickStart()} is a
+ * companion system that runs first and takes the start time. The wait between ticks is left out, so the samples show
+ * the work a tick costs and how much of the tick period is left as headroom, also while the world keeps up. A world
+ * whose ticks take longer than its tick period falls behind its tick rate.
+ * <p>
+ * It also adds up the game time each world actually advanced as the sum of the {@code dt} its ticks were given, so
+ * ticks a stalled world never ran are not counted. The sum is not scaled by the world's dilation: systems advance the
+ * simulation by {@code dt}, so whether the server dilates time through a larger {@code dt} or through more ticks,
+ * the {@code dt} the systems receive is the game time that passes. Scaling it again would count dilation twice in
+ * the first case and credit a speed-up the systems never ran in the second.
+ */
+public class TickMonitor extends TickingSystem<EntityStore> {
+    private final Map<String, WorldTicks> worlds = new ConcurrentHashMap<>();
+    private final TickStart tickStart = new TickStart();
+
+    @Override
+    public Set<Dependency<EntityStore>> getDependencies() {
+        return Set.of(RootDependency.last());
+    }
+
+    @Override
+    public void tick(float dt, int systemIndex, Store<EntityStore> store) {
+        World world = store.getExternalData().getWorld();
+        WorldTicks ticks = worlds.computeIfAbsent(world.getName(), name -> new WorldTicks());
+
+        if (ticks.startNanos != 0) {
+            ticks.stats.record(System.nanoTime() - ticks.startNanos);
+        }
+        ticks.gameNanos += (long) (dt * 1_000_000_000.0);
+    }
+
+    /**
+     * @return The system that marks the start of each tick; must be registered along with this one
+     */
+    public TickingSystem<EntityStore> getTickStart() {
+        return tickStart;
+    }
+
+    /**
+     * @param worldName The world name
+     * @return Game time the world advanced through its ticks so far in nanoseconds, 0 if it has not ticked yet
+     */
+    public long getGameNanos(String worldName) {
+        WorldTicks ticks = worlds.get(worldName);
+        return ticks != null ? ticks.gameNanos : 0L;
+    }
+
+    /**
+     * @param worldName The world name
+     * @return Wall-clock time between the starts of the world's last two ticks in nanoseconds, 0 if not known yet
+     */
+    public long getTickPeriodNanos(String worldName) {
+        WorldTicks ticks = worlds.get(worldName);
+        return ticks != null ? ticks.periodNanos : 0L;
+    }
+
+    /**
+     * @param worldName The world name
+     * @return The world's tick statistics, or null if the world has not ticked yet
+     */
+    public TickStats getStats(String worldName) {
+        WorldTicks ticks = worlds.get(worldName);
+        return ticks != null ? ticks.stats : null;
+    }
+
+    /**
+     * Runs first in tick order and takes the start time of every tick.
+     */
+    private final class TickStart extends TickingSystem<EntityStore> {
+        @Override
+        public Set<Dependency<EntityStore>> getDependencies() {
+            return Set.of(RootDependency.first());
+        }
+
+        @Override
+        public void tick(float dt, int systemIndex, Store<EntityStore> store) {
+            WorldTicks ticks = worlds.computeIfAbsent(store.getExternalData().getWorld().getName(), name -> new WorldTicks());
+            long now = System.nanoTime();
+            if (ticks.startNanos != 0) {
+                ticks.periodNanos = now - ticks.startNanos;
+            }
+            ticks.startNanos = now;
+        }
+    }
+
+    private static final class WorldTicks {
+        private final TickStats stats = new TickStats(SpeedConstants.TICK_WINDOW_SIZE);
+        // Only touched by the world's own thread
+        private long startNanos;
+        // Written by the world's own thread only
+        private volatile long periodNanos;
+        private volatile long gameNanos;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of tick durations for one world.
+ * Written by the world thread, read by the governor, so access is synchronized.
+ */
+public class TickStats {
+    private final long[] window;
+    private final long[] scratch;
+    private int next;
+    private int size;
+
+    public TickStats(int windowSize) {
+        this.window = new long[windowSize];
+        this.scratch = new long[windowSize];
+    }
+
+    /**
+     * Records one tick duration, overwriting the oldest sample once the window is full.
+     *
+     * @param nanos Tick duration in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        window[next] = nanos;
+        next = (next + 1) % window.length;
+        if (size < window.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @param percentile Percentile in [0, 100]
+     * @return The percentile tick duration in milliseconds, or 0 if nothing was recorded yet
+     */
+    public synchronized float percentileMs(float percentile) {
+        if (size == 0) {
+            return 0.0f;
+        }
+        System.arraycopy(window, 0, scratch, 0, size);
+        Arrays.sort(scratch, 0, size);
+        int index = Math.min(size - 1, (int) Math.ceil(percentile / 100.0f * size) - 1);
+        return scratch[Math.max(0, index)] / 1_000_000.0f;
+    }
+
+    /**
+     * @return Number of samples currently in the window
+     */
+    public synchronized int getSampleCount() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+    }
+}
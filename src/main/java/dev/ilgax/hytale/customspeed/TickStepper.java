@@ -0,0 +1,305 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.dependency.Dependency;
+import com.hypixel.hytale.component.dependency.RootDependency;
+import com.hypixel.hytale.component.system.tick.TickingSystem;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Ticking system that advances frozen worlds by an exact number of ticks and records how long each of them took.
+ * <p>
+ * A frozen world runs at {@link SpeedConstants#FREEZE_DILATION}. A step switches it to normal dilation and counts
+ * ticks on the world's own thread; the tick that uses up the step puts the world back to the freeze dilation
+ * directly, so no extra tick slips through while a task waits in the world's queue.
+ * <p>
+ * A stepped tick is timed from its start to its end: this system runs last in tick order, and
+ * {@link #getTickStart()} is a companion system that runs first and takes the start time. The time between ticks,
+ * which includes the wait for the next tick, is left out. Every stepped tick's duration goes into a ring buffer that
+ * outlives the freeze, so the slowest ticks can still be reported after the world was resumed.
+ */
+public class TickStepper extends TickingSystem<EntityStore> {
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, TickRing> rings = new ConcurrentHashMap<>();
+    private final Consumer<World> onRefrozen;
+    private final TickStart tickStart = new TickStart();
+
+    /**
+     * @param onRefrozen Called on the world thread when a step ended and the world is frozen again
+     */
+    public TickStepper(Consumer<World> onRefrozen) {
+        this.onRefrozen = onRefrozen;
+    }
+
+    @Override
+    public Set<Dependency<EntityStore>> getDependencies() {
+        return Set.of(RootDependency.last());
+    }
+
+    @Override
+    public void tick(float dt, int systemIndex, Store<EntityStore> store) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        World world = store.getExternalData().getWorld();
+        Session session = sessions.get(world.getName());
+        if (session != null) {
+            session.endTick(world, store, System.nanoTime());
+        }
+    }
+
+    /**
+     * @return The system that marks the start of each tick; must be registered along with this one
+     */
+    public TickingSystem<EntityStore> getTickStart() {
+        return tickStart;
+    }
+
+    /**
+     * Starts a freeze session for a world. Its tick recording starts over.
+     *
+     * @param worldName The world name
+     * @return false if the world is already frozen
+     */
+    public boolean freeze(String worldName) {
+        TickRing ring = new TickRing(SpeedConstants.STEP_RING_SIZE);
+        if (sessions.putIfAbsent(worldName, new Session(ring)) != null) {
+            return false;
+        }
+        rings.put(worldName, ring);
+        return true;
+    }
+
+    /**
+     * Ends a world's freeze session. A step still running fails with a {@link CancellationException}.
+     *
+     * @param worldName The world name
+     * @return false if the world was not frozen
+     */
+    public boolean release(String worldName) {
+        Session session = sessions.remove(worldName);
+        if (session == null) {
+            return false;
+        }
+        Step step = session.step;
+        if (step != null) {
+            step.result.completeExceptionally(new CancellationException("World '" + worldName + "' was resumed"));
+        }
+        return true;
+    }
+
+    public boolean isFrozen(String worldName) {
+        return sessions.containsKey(worldName);
+    }
+
+    /**
+     * Reserves a frozen world for a step. Must be followed by {@link #beginStep(String)} once the world runs at
+     * normal dilation.
+     *
+     * @param worldName The world name
+     * @param ticks Number of ticks to advance
+     * @return Future completed with the recorded ticks once the world is frozen again
+     * @throws IllegalStateException if the world is not frozen or still stepping
+     */
+    public CompletableFuture<List<TickSample>> prepareStep(String worldName, int ticks) {
+        Session session = sessions.get(worldName);
+        if (session == null) {
+            throw new IllegalStateException("World '" + worldName + "' is not frozen!");
+        }
+        synchronized (session) {
+            if (session.step != null) {
+                throw new IllegalStateException("World '" + worldName + "' is still stepping!");
+            }
+            Step step = new Step(ticks);
+            step.result.whenComplete((samples, error) -> session.finishStep(step));
+            session.step = step;
+            return step.result;
+        }
+    }
+
+    /**
+     * Starts counting the prepared step; the next tick of the world is its first.
+     *
+     * @param worldName The world name
+     */
+    public void beginStep(String worldName) {
+        Session session = sessions.get(worldName);
+        Step step = session != null ? session.step : null;
+        if (step != null) {
+            step.started = true;
+        }
+    }
+
+    /**
+     * Drops a prepared step whose dilation could not be applied.
+     *
+     * @param worldName The world name
+     * @param error Why the step failed
+     */
+    public void abortStep(String worldName, Throwable error) {
+        Session session = sessions.get(worldName);
+        Step step = session != null ? session.step : null;
+        if (step != null) {
+            step.result.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * @param worldName The world name
+     * @param count Maximum number of ticks to return
+     * @return The slowest recorded ticks of the world's latest freeze, slowest first
+     */
+    public List<TickSample> getSlowestTicks(String worldName, int count) {
+        TickRing ring = rings.get(worldName);
+        return ring != null ? ring.slowest(count) : List.of();
+    }
+
+    private final class Session {
+        private final TickRing ring;
+        // Set under the session's lock, counted down only by the world thread
+        private volatile Step step;
+        // Only touched by the world thread
+        private long tickNumber;
+        private long stepTickStartNanos;
+
+        private Session(TickRing ring) {
+            this.ring = ring;
+        }
+
+        /**
+         * Runs before every other system: a tick that belongs to a started step is timed from here.
+         */
+        private void startTick(long now) {
+            Step step = this.step;
+            if (step != null && step.started && step.remaining > 0) {
+                stepTickStartNanos = now;
+            }
+        }
+
+        /**
+         * Runs after every other system: records the tick if its start was taken and counts it towards the step.
+         */
+        private void endTick(World world, Store<EntityStore> store, long now) {
+            Step step = this.step;
+            if (stepTickStartNanos == 0L) {
+                return;
+            }
+            TickSample sample = new TickSample(++tickNumber, now - stepTickStartNanos);
+            stepTickStartNanos = 0L;
+            ring.add(sample);
+            if (step == null) {
+                return;
+            }
+
+            step.samples.add(sample);
+            if (--step.remaining == 0) {
+                // Takes effect from the next tick on, before anything queued on the world runs
+                World.setTimeDilation(SpeedConstants.FREEZE_DILATION, store);
+                onRefrozen.accept(world);
+                step.result.complete(List.copyOf(step.samples));
+            }
+        }
+
+        private synchronized void finishStep(Step finished) {
+            if (step == finished) {
+                step = null;
+            }
+        }
+    }
+
+    /**
+     * Runs first in tick order and takes the start time of stepped ticks.
+     */
+    private final class TickStart extends TickingSystem<EntityStore> {
+        @Override
+        public Set<Dependency<EntityStore>> getDependencies() {
+            return Set.of(RootDependency.first());
+        }
+
+        @Override
+        public void tick(float dt, int systemIndex, Store<EntityStore> store) {
+            if (sessions.isEmpty()) {
+                return;
+            }
+            Session session = sessions.get(store.getExternalData().getWorld().getName());
+            if (session != null) {
+                session.startTick(System.nanoTime());
+            }
+        }
+    }
+
+    private static final class Step {
+        private final CompletableFuture<List<TickSample>> result = new CompletableFuture<>();
+        private final List<TickSample> samples = new ArrayList<>();
+        private volatile boolean started;
+        private int remaining;
+
+        private Step(int ticks) {
+            this.remaining = ticks;
+        }
+    }
+
+    /**
+     * Fixed-size ring of the latest recorded ticks.
+     */
+    private static final class TickRing {
+        private final TickSample[] samples;
+        private int next;
+        private int size;
+
+        private TickRing(int capacity) {
+            this.samples = new TickSample[capacity];
+        }
+
+        private synchronized void add(TickSample sample) {
+            samples[next] = sample;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        }
+
+        private synchronized List<TickSample> slowest(int count) {
+            TickSample[] recorded = Arrays.copyOf(samples, size);
+            Arrays.sort(recorded, Comparator.comparingLong(TickSample::getDurationNanos).reversed());
+            return List.of(Arrays.copyOf(recorded, Math.min(count, recorded.length)));
+        }
+    }
+
+    /**
+     * One stepped tick.
+     */
+    public static final class TickSample {
+        private final long tickNumber;
+        private final long durationNanos;
+
+        private TickSample(long tickNumber, long durationNanos) {
+            this.tickNumber = tickNumber;
+            this.durationNanos = durationNanos;
+        }
+
+        /**
+         * @return Position of the tick among all ticks stepped since the world was frozen, starting at 1
+         */
+        public long getTickNumber() {
+            return tickNumber;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public float getDurationMs() {
+            return durationNanos / 1_000_000.0f;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.server.core.universe.world.World;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs worlds fast until a given amount of game time has passed.
+ * <p>
+ * A skip starts at the maximum speed and is re-evaluated every {@link SpeedConstants#SKIP_INTERVAL_MS}: game time is
+ * what the world's ticks advanced, as added up by the {@link TickMonitor} on the world thread, and the speed is
+ * lowered in proportion while the
+ * {@link SpeedConstants#GOVERNOR_PERCENTILE}th percentile tick time exceeds the budget and raised again while there is
+ * headroom, so the skip settles at the highest speed the world sustains. The last interval is shortened so the skip
+ * ends on its target. The remaining game time of every skip is written to a small file, so skips interrupted by a
+ * restart can be resumed. Restoring the world's speed afterwards is up to the caller.
+ */
+public class TimeSkipper {
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+)([dhms])");
+
+    private final SpeedConfig config;
+    private final TickMonitor tickMonitor;
+    private final SpeedService speedService;
+    private final BiFunction<World, Float, CompletableFuture<Void>> applier;
+    private final Path file;
+    private final Consumer<Exception> onError;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Remaining game milliseconds of skips read from the file that were not resumed yet
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param config Plugin config providing the maximum speed and the tick budget
+     * @param tickMonitor Source of tick times and of the game time worlds advanced
+     * @param speedService Reports the dilation worlds actually run at
+     * @param applier Applies a dilation to a world
+     * @param file File the remaining game time of running skips is kept in
+     * @param onError Receives errors writing the file
+     */
+    public TimeSkipper(SpeedConfig config, TickMonitor tickMonitor, SpeedService speedService,
+                       BiFunction<World, Float, CompletableFuture<Void>> applier, Path file, Consumer<Exception> onError) {
+        this.config = config;
+        this.tickMonitor = tickMonitor;
+        this.speedService = speedService;
+        this.applier = applier;
+        this.file = file;
+        this.onError = onError;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-Skip");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses a game duration such as {@code 90s}, {@code 30m} or {@code 1d12h}.
+     *
+     * @param text The duration
+     * @return The duration
+     * @throws IllegalArgumentException if the text is not a positive duration
+     */
+    public static Duration parseDuration(String text) {
+        String normalized = text.trim().toLowerCase(Locale.ROOT);
+        Matcher matcher = DURATION_PART.matcher(normalized);
+        Duration duration = Duration.ZERO;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            long amount = Long.parseLong(matcher.group(1));
+            String unit = matcher.group(2);
+            if ("d".equals(unit)) {
+                duration = duration.plusDays(amount);
+            } else if ("h".equals(unit)) {
+                duration = duration.plusHours(amount);
+            } else if ("m".equals(unit)) {
+                duration = duration.plusMinutes(amount);
+            } else {
+                duration = duration.plusSeconds(amount);
+            }
+            end = matcher.end();
+        }
+        if (end == 0 || end != normalized.length() || duration.isZero()) {
+            throw new IllegalArgumentException("Invalid duration '" + text + "', use e.g. 90s, 30m or 1d12h!");
+        }
+        return duration;
+    }
+
+    /**
+     * Reads the skips that were still running when the plugin last stopped. They are handed out once by
+     * {@link #takePending(String)}.
+     */
+    public void loadPending() {
+        Properties stored = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            stored.load(reader);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            onError.accept(e);
+            return;
+        }
+
+        for (String worldName : stored.stringPropertyNames()) {
+            try {
+                long remainingMs = Long.parseLong(stored.getProperty(worldName));
+                if (remainingMs > 0L) {
+                    pending.put(worldName, remainingMs);
+                }
+            } catch (NumberFormatException e) {
+                // Skip malformed entries instead of dropping every skip
+            }
+        }
+    }
+
+    /**
+     * @param worldName The world name
+     * @return The remaining game time of an interrupted skip of the world, or null if there is none
+     */
+    public Duration takePending(String worldName) {
+        Long remainingMs = pending.remove(worldName);
+        return remainingMs != null ? Duration.ofMillis(remainingMs) : null;
+    }
+
+    /**
+     * Starts skipping a world forward.
+     *
+     * @param world The world
+     * @param gameTime Game time to skip
+     * @return Future completed with the outcome once the game time has passed or the skip was cancelled, or
+     *         exceptionally if a skip of the world is already running or a speed could not be applied
+     */
+    public CompletableFuture<Result> start(World world, Duration gameTime) {
+        Job job = new Job(world, gameTime.toNanos());
+        if (jobs.putIfAbsent(world.getName(), job) != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("A skip of world '" + world.getName() + "' is already running"));
+        }
+        pending.remove(world.getName());
+        job.result.whenComplete((result, error) -> {
+            jobs.remove(world.getName(), job);
+            // A skip stopped by a shutdown stays in the file and is resumed on the next start
+            if (!(error instanceof CancellationException)) {
+                executor.execute(this::persist);
+            }
+        });
+        executor.execute(job::begin);
+        return job.result;
+    }
+
+    /**
+     * Stops a running skip. Its future completes with the game time skipped so far.
+     *
+     * @param worldName The world name
+     * @return true if a skip was running
+     */
+    public boolean cancel(String worldName) {
+        Job job = jobs.get(worldName);
+        if (job == null) {
+            return false;
+        }
+        executor.execute(() -> job.finish(true));
+        return true;
+    }
+
+    /**
+     * @param worldName The world name
+     * @return Progress of the world's skip, or null if none is running
+     */
+    public Progress getProgress(String worldName) {
+        Job job = jobs.get(worldName);
+        return job != null ? job.progress() : null;
+    }
+
+    /**
+     * Stops all skips, keeping their remaining game time in the file. Their futures fail with a
+     * {@link CancellationException}.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(SpeedConstants.SKIP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persist();
+        for (Job job : jobs.values()) {
+            job.result.completeExceptionally(new CancellationException("Plugin is shutting down"));
+        }
+    }
+
+    /**
+     * Replaces the file with the remaining game time of every running and not yet resumed skip.
+     */
+    private synchronized void persist() {
+        Properties stored = new Properties();
+        pending.forEach((worldName, remainingMs) -> stored.setProperty(worldName, Long.toString(remainingMs)));
+        for (Job job : jobs.values()) {
+            if (!job.result.isDone()) {
+                stored.setProperty(job.world.getName(), Long.toString(TimeUnit.NANOSECONDS.toMillis(job.remainingNanos())));
+            }
+        }
+
+        try {
+            if (stored.isEmpty()) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                stored.store(writer, "Remaining game milliseconds of running /speed skip jobs");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            onError.accept(e);
+        }
+    }
+
+    private final class Job {
+        private final World world;
+        private final long totalNanos;
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        // Game time the world had advanced when the skip started
+        private final long startGameNanos;
+        // Written by the skip thread only
+        private volatile float speed;
+        private long lastPersistNanos = startNanos;
+
+        private Job(World world, long totalNanos) {
+            this.world = world;
+            this.totalNanos = totalNanos;
+            this.startGameNanos = tickMonitor.getGameNanos(world.getName());
+        }
+
+        private void begin() {
+            persist();
+            apply(config.getMaxSpeed());
+        }
+
+        private void evaluate() {
+            if (result.isDone()) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (remainingNanos() <= 0L) {
+                finish(false);
+                return;
+            }
+            if (now - lastPersistNanos >= TimeUnit.MILLISECONDS.toNanos(SpeedConstants.SKIP_PERSIST_INTERVAL_MS)) {
+                lastPersistNanos = now;
+                persist();
+            }
+
+            float next = speed;
+            TickStats stats = tickMonitor.getStats(world.getName());
+            if (stats != null && stats.getSampleCount() >= SpeedConstants.GOVERNOR_MIN_SAMPLES) {
+                float tickMs = stats.percentileMs(SpeedConstants.GOVERNOR_PERCENTILE);
+                float budgetMs = config.getTickBudgetMs();
+                if (tickMs > budgetMs) {
+                    next = speed * budgetMs / tickMs;
+                } else if (tickMs < budgetMs * (1.0f - SpeedConstants.GOVERNOR_DEADBAND)) {
+                    next = speed * Math.min(SpeedConstants.SKIP_MAX_SPEED_UP, budgetMs / Math.max(tickMs, 1.0f));
+                }
+            }
+            next = Math.max(SpeedConstants.NORMAL_SPEED, Math.min(config.getMaxSpeed(), next));
+
+            if (SpeedUnits.toHundredths(next) != SpeedUnits.toHundredths(speed)) {
+                apply(next);
+            } else {
+                scheduleNext();
+            }
+        }
+
+        private void apply(float target) {
+            speed = target;
+            applier.apply(world, target).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(CustomSpeedPlugin.unwrap(error));
+                    return;
+                }
+                // Judge the new speed by its own ticks only
+                TickStats stats = tickMonitor.getStats(world.getName());
+                if (stats != null) {
+                    stats.clear();
+                }
+                executor.execute(this::scheduleNext);
+            });
+        }
+
+        private void scheduleNext() {
+            if (result.isDone()) {
+                return;
+            }
+            // The last interval ends when the remaining game time has passed at the current dilation, but no sooner
+            // than the next tick: game time only moves when the world ticks
+            float running = Math.max(SpeedConstants.NORMAL_SPEED, speedService.getSpeed(world.getName()));
+            long untilDoneMs = (long) Math.ceil(TimeUnit.NANOSECONDS.toMillis(remainingNanos()) / running);
+            long periodNanos = tickMonitor.getTickPeriodNanos(world.getName());
+            long tickMs = periodNanos > 0 ? Math.max(1L, (periodNanos + 999_999L) / 1_000_000L) : SpeedConstants.SKIP_INTERVAL_MS;
+            executor.schedule(this::evaluate, Math.min(SpeedConstants.SKIP_INTERVAL_MS, Math.max(tickMs, untilDoneMs)),
+                TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return Game time the world's ticks advanced since the skip started
+         */
+        private long skippedNanos() {
+            return tickMonitor.getGameNanos(world.getName()) - startGameNanos;
+        }
+
+        private long remainingNanos() {
+            return Math.max(0L, totalNanos - skippedNanos());
+        }
+
+        private void finish(boolean cancelled) {
+            if (result.isDone()) {
+                return;
+            }
+            result.complete(new Result(Duration.ofNanos(Math.min(skippedNanos(), totalNanos)),
+                Duration.ofNanos(System.nanoTime() - startNanos), cancelled));
+        }
+
+        private Progress progress() {
+            float running = speedService.getSpeed(world.getName());
+            long remaining = remainingNanos();
+            return new Progress(Duration.ofNanos(totalNanos - remaining), Duration.ofNanos(remaining), running,
+                Duration.ofNanos((long) (remaining / (double) Math.max(running, SpeedConstants.NORMAL_SPEED))));
+        }
+    }
+
+    /**
+     * State of a running skip.
+     */
+    public static final class Progress {
+        private final Duration skipped;
+        private final Duration remaining;
+        private final float speed;
+        private final Duration eta;
+
+        private Progress(Duration skipped, Duration remaining, float speed, Duration eta) {
+            this.skipped = skipped;
+            this.remaining = remaining;
+            this.speed = speed;
+            this.eta = eta;
+        }
+
+        /**
+         * @return Game time skipped so far
+         */
+        public Duration getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return Game time left to skip
+         */
+        public Duration getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * @return The dilation the world currently runs at
+         */
+        public float getSpeed() {
+            return speed;
+        }
+
+        /**
+         * @return Real time until the skip ends if the current dilation holds
+         */
+        public Duration getEta() {
+            return eta;
+        }
+    }
+
+    /**
+     * Outcome of a skip.
+     */
+    public static final class Result {
+        private final Duration skipped;
+        private final Duration wallTime;
+        private final boolean cancelled;
+
+        private Result(Duration skipped, Duration wallTime, boolean cancelled) {
+            this.skipped = skipped;
+            this.wallTime = wallTime;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * @return Game time skipped
+         */
+        public Duration getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return Real time the skip took
+         */
+        public Duration getWallTime() {
+            return wallTime;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
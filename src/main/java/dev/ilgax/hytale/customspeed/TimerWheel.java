@@ -0,0 +1,126 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel for long-running, low-precision timers.
+ * <p>
+ * A single repeating task advances the wheel one slot per tick and runs the timers in that slot whose remaining
+ * rounds reached zero, so any number of timers costs one scheduled task. Timers fire on the wheel thread, at or up
+ * to one tick after their deadline, and must not block. A timer that throws is reported to the wheel thread's
+ * uncaught exception handler; the wheel keeps running.
+ */
+public class TimerWheel {
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timer>[] slots;
+    private final Queue<Timer> added = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor;
+    private final long startNanos;
+
+    // Only touched by the wheel thread
+    private long tick;
+
+    /**
+     * @param tickMs Duration of one slot in milliseconds
+     * @param slotCount Number of slots, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long tickMs, int slotCount) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayList<>();
+        }
+
+        this.startNanos = System.nanoTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CustomSpeed-TimerWheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param task The task to run on the wheel thread
+     * @param delayMs Delay in milliseconds
+     * @return Handle to cancel the timer
+     */
+    public Timer schedule(Runnable task, long delayMs) {
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMs));
+        Timer timer = new Timer(task, deadline);
+        added.add(timer);
+        return timer;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void advance() {
+        // Place newly added timers; deadlines are rounded up so a timer never fires early
+        Timer timer;
+        while ((timer = added.poll()) != null) {
+            if (timer.cancelled) {
+                continue;
+            }
+            long deadlineTick = Math.max(tick, (timer.deadlineNanos + tickNanos - 1) / tickNanos);
+            timer.remainingRounds = (deadlineTick - tick) / slots.length;
+            slots[(int) (deadlineTick & mask)].add(timer);
+        }
+
+        Iterator<Timer> iterator = slots[(int) (tick & mask)].iterator();
+        while (iterator.hasNext()) {
+            Timer current = iterator.next();
+            if (current.cancelled) {
+                iterator.remove();
+            } else if (current.remainingRounds <= 0) {
+                iterator.remove();
+                try {
+                    current.task.run();
+                } catch (Throwable e) {
+                    // An exception escaping the repeating task would cancel the wheel for good
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            } else {
+                current.remainingRounds--;
+            }
+        }
+        tick++;
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timer {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timer(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Prevents the task from running if it has not run yet.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
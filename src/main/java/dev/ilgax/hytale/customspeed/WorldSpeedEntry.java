@@ -0,0 +1,53 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+
+/**
+ * Persisted speed settings of a single world.
+ */
+public class WorldSpeedEntry {
+    private String world = "";
+    private float currentSpeed = SpeedConstants.NORMAL_SPEED;
+    private float toggleTargetSpeed = SpeedConstants.DEFAULT_TOGGLE_SPEED;
+
+    public WorldSpeedEntry() {
+    }
+
+    public WorldSpeedEntry(String world, float currentSpeed, float toggleTargetSpeed) {
+        this.world = world;
+        this.currentSpeed = currentSpeed;
+        this.toggleTargetSpeed = toggleTargetSpeed;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public void setWorld(String world) {
+        this.world = world;
+    }
+
+    public float getCurrentSpeed() {
+        return currentSpeed;
+    }
+
+    public void setCurrentSpeed(float currentSpeed) {
+        this.currentSpeed = currentSpeed;
+    }
+
+    public float getToggleTargetSpeed() {
+        return toggleTargetSpeed;
+    }
+
+    public void setToggleTargetSpeed(float toggleTargetSpeed) {
+        this.toggleTargetSpeed = toggleTargetSpeed;
+    }
+
+    public static final BuilderCodec<WorldSpeedEntry> CODEC = BuilderCodec.builder(WorldSpeedEntry.class, WorldSpeedEntry::new)
+            .append(new KeyedCodec<>("World", Codec.STRING), WorldSpeedEntry::setWorld, WorldSpeedEntry::getWorld).add()
+            .append(new KeyedCodec<>("CurrentSpeed", Codec.FLOAT), WorldSpeedEntry::setCurrentSpeed, WorldSpeedEntry::getCurrentSpeed).add()
+            .append(new KeyedCodec<>("ToggleTargetSpeed", Codec.FLOAT), WorldSpeedEntry::setToggleTargetSpeed, WorldSpeedEntry::getToggleTargetSpeed).add()
+            .build();
+}
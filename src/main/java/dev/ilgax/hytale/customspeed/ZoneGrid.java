@@ -0,0 +1,172 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable spatial index of the speed zones of one world.
+ * <p>
+ * Space is divided into cubic cells of {@code 2^}{@link SpeedConstants#ZONE_CELL_SHIFT} blocks. Every cell touched by
+ * a zone's bounding box is stored in an open-addressing table keyed by the packed cell coordinates, so finding the
+ * zones around an entity is a single probe without boxing. A cell whose highest-priority zone covers it completely is
+ * uniform: every point in it has the same speed, and an entity that stays in it needs no further tests.
+ */
+public final class ZoneGrid {
+    public static final ZoneGrid EMPTY = new ZoneGrid(new long[1], new Cell[1], 0);
+
+    private static final int CELL_SIZE = 1 << SpeedConstants.ZONE_CELL_SHIFT;
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private final long[] keys;
+    private final Cell[] cells;
+    private final int mask;
+    private final int size;
+
+    private ZoneGrid(long[] keys, Cell[] cells, int size) {
+        this.keys = keys;
+        this.cells = cells;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Builds the index of one world's zones.
+     *
+     * @param zones Valid zones of the world, highest priority first
+     * @return The index
+     */
+    public static ZoneGrid build(List<SpeedZone> zones) {
+        Map<Long, List<SpeedZone>> touched = new LinkedHashMap<>();
+        for (SpeedZone zone : zones) {
+            int minCellX = cell(zone.getBoundsMinX());
+            int minCellY = cell(zone.getMinY());
+            int minCellZ = cell(zone.getBoundsMinZ());
+            int maxCellX = cell(zone.getBoundsMaxX());
+            int maxCellY = cell(zone.getMaxY());
+            int maxCellZ = cell(zone.getBoundsMaxZ());
+            for (int x = minCellX; x <= maxCellX; x++) {
+                for (int y = minCellY; y <= maxCellY; y++) {
+                    for (int z = minCellZ; z <= maxCellZ; z++) {
+                        touched.computeIfAbsent(pack(x, y, z), key -> new ArrayList<>()).add(zone);
+                    }
+                }
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, touched.size() * 2 - 1)) << 1;
+        long[] keys = new long[capacity];
+        Cell[] cells = new Cell[capacity];
+        for (Map.Entry<Long, List<SpeedZone>> entry : touched.entrySet()) {
+            long key = entry.getKey();
+            int slot = slot(key, capacity - 1);
+            while (cells[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = key;
+            cells[slot] = new Cell(key, entry.getValue());
+        }
+        return new ZoneGrid(keys, cells, touched.size());
+    }
+
+    /**
+     * @return Number of cells a zone's bounding box touches
+     */
+    public static long countCells(SpeedZone zone) {
+        return (long) (cell(zone.getBoundsMaxX()) - cell(zone.getBoundsMinX()) + 1)
+            * (cell(zone.getMaxY()) - cell(zone.getMinY()) + 1)
+            * (cell(zone.getBoundsMaxZ()) - cell(zone.getBoundsMinZ()) + 1);
+    }
+
+    /**
+     * @return Packed key of the cell containing a position
+     */
+    public static long cellKey(double x, double y, double z) {
+        return pack(cell(x), cell(y), cell(z));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key Packed cell key from {@link #cellKey(double, double, double)}
+     * @return The cell, or null if no zone touches it
+     */
+    public Cell get(long key) {
+        if (size == 0) {
+            return null;
+        }
+        int slot = slot(key, mask);
+        Cell cell;
+        while ((cell = cells[slot]) != null) {
+            if (keys[slot] == key) {
+                return cell;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int cell(double coordinate) {
+        return (int) Math.floor(coordinate) >> SpeedConstants.ZONE_CELL_SHIFT;
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((x & COORDINATE_MASK) << (2 * COORDINATE_BITS)) | ((y & COORDINATE_MASK) << COORDINATE_BITS) | (z & COORDINATE_MASK);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Zones touching one cell, highest priority first.
+     */
+    public static final class Cell {
+        private final SpeedZone[] zones;
+        private final int[] speeds;
+        // Speed of every point in the cell, or -1 if it depends on the position
+        private final int uniformSpeed;
+
+        private Cell(long key, List<SpeedZone> zones) {
+            this.zones = zones.toArray(new SpeedZone[0]);
+            this.speeds = new int[this.zones.length];
+            for (int i = 0; i < speeds.length; i++) {
+                speeds[i] = SpeedUnits.toHundredths(this.zones[i].getSpeed());
+            }
+
+            double x0 = unpack(key >>> (2 * COORDINATE_BITS)) * (double) CELL_SIZE;
+            double y0 = unpack(key >>> COORDINATE_BITS) * (double) CELL_SIZE;
+            double z0 = unpack(key) * (double) CELL_SIZE;
+            this.uniformSpeed = this.zones[0].covers(x0, y0, z0, x0 + CELL_SIZE, y0 + CELL_SIZE, z0 + CELL_SIZE) ? speeds[0] : -1;
+        }
+
+        public boolean isUniform() {
+            return uniformSpeed >= 0;
+        }
+
+        /**
+         * @return Speed in hundredths of the highest-priority zone containing the point, or normal speed if none does
+         */
+        public int speedAt(double x, double y, double z) {
+            if (uniformSpeed >= 0) {
+                return uniformSpeed;
+            }
+            for (int i = 0; i < zones.length; i++) {
+                if (zones[i].contains(x, y, z)) {
+                    return speeds[i];
+                }
+            }
+            return SpeedUnits.NORMAL_HUNDREDTHS;
+        }
+
+        private static int unpack(long bits) {
+            // Sign-extend the 21-bit coordinate
+            return (int) ((bits & COORDINATE_MASK) << (64 - COORDINATE_BITS) >> (64 - COORDINATE_BITS));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-world {@link ZoneGrid}s of the configured speed zones.
+ * <p>
+ * The grids are rebuilt as a whole whenever zones change and published with a single volatile write, so world
+ * threads read them without locking. Entities cache the grid they last looked at and notice a rebuild by identity.
+ */
+public class ZoneIndex {
+    private volatile Map<String, ZoneGrid> grids = Map.of();
+
+    /**
+     * Rebuilds every grid from the given zones. Earlier zones take priority where zones overlap.
+     *
+     * @param zones Valid zones
+     */
+    public void rebuild(SpeedZone[] zones) {
+        Map<String, List<SpeedZone>> byWorld = new HashMap<>();
+        for (SpeedZone zone : zones) {
+            byWorld.computeIfAbsent(zone.getWorld(), world -> new ArrayList<>()).add(zone);
+        }
+
+        Map<String, ZoneGrid> rebuilt = new HashMap<>();
+        byWorld.forEach((world, worldZones) -> rebuilt.put(world, ZoneGrid.build(worldZones)));
+        this.grids = rebuilt;
+    }
+
+    /**
+     * @param worldName The world name
+     * @return The world's grid, or {@link ZoneGrid#EMPTY} if it has no zones
+     */
+    public ZoneGrid getGrid(String worldName) {
+        return grids.getOrDefault(worldName, ZoneGrid.EMPTY);
+    }
+}
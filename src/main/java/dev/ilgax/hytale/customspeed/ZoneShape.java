@@ -0,0 +1,35 @@
+package dev.ilgax.hytale.customspeed;
+
+import java.util.Locale;
+
+/**
+ * Shape of a {@link SpeedZone}.
+ */
+public enum ZoneShape {
+    /** Axis-aligned box between two corners. */
+    BOX,
+    /** Upright cylinder around a center column. */
+    CYLINDER;
+
+    /**
+     * @return The name used for this shape in the config file (e.g. "Box")
+     */
+    public String getConfigName() {
+        return name().charAt(0) + name().substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up a shape by its config name, ignoring case.
+     *
+     * @param name Shape name (e.g. "Box", "cylinder")
+     * @return The matching shape, or null if the name is unknown
+     */
+    public static ZoneShape fromName(String name) {
+        for (ZoneShape shape : values()) {
+            if (shape.name().equalsIgnoreCase(name)) {
+                return shape;
+            }
+        }
+        return null;
+    }
+}
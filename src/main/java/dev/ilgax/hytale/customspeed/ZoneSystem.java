@@ -0,0 +1,62 @@
+package dev.ilgax.hytale.customspeed;
+
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.tick.EntityTickingSystem;
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.hypixel.hytale.server.core.entity.entities.player.movement.MovementManager;
+import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+/**
+ * Assigns the speed of the zone an entity stands in to its {@link LocalSpeedComponent}.
+ * <p>
+ * An entity that is still in the same uniform cell of the same grid as on its last tick is skipped after one key
+ * comparison. Otherwise the lookup is one probe into the world's {@link ZoneGrid} plus, in cells on a zone edge,
+ * a containment test against the few zones touching the cell. Entities outside every zone never get a component.
+ */
+public class ZoneSystem extends EntityTickingSystem<EntityStore> {
+    private final ZoneIndex index;
+    private final Query<EntityStore> query = Query.and(TransformComponent.getComponentType(), MovementManager.getComponentType());
+
+    public ZoneSystem(ZoneIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public Query<EntityStore> getQuery() {
+        return query;
+    }
+
+    @Override
+    public void tick(float dt, int entityIndex, ArchetypeChunk<EntityStore> chunk, Store<EntityStore> store, CommandBuffer<EntityStore> commandBuffer) {
+        ZoneGrid grid = index.getGrid(store.getExternalData().getWorld().getName());
+        LocalSpeedComponent localSpeed = chunk.getComponent(entityIndex, LocalSpeedComponent.getComponentType());
+        if (grid.isEmpty()) {
+            if (localSpeed != null) {
+                localSpeed.setZone(SpeedUnits.NORMAL_HUNDREDTHS, grid, 0L, true);
+            }
+            return;
+        }
+
+        Vector3d position = chunk.getComponent(entityIndex, TransformComponent.getComponentType()).getPosition();
+        long key = ZoneGrid.cellKey(position.getX(), position.getY(), position.getZ());
+        if (localSpeed != null && localSpeed.isInUniformCell(grid, key)) {
+            return;
+        }
+
+        ZoneGrid.Cell cell = grid.get(key);
+        int zoneSpeed = cell != null ? cell.speedAt(position.getX(), position.getY(), position.getZ()) : SpeedUnits.NORMAL_HUNDREDTHS;
+        boolean uniform = cell == null || cell.isUniform();
+
+        if (localSpeed != null) {
+            localSpeed.setZone(zoneSpeed, grid, key, uniform);
+        } else if (zoneSpeed != SpeedUnits.NORMAL_HUNDREDTHS) {
+            LocalSpeedComponent added = new LocalSpeedComponent();
+            added.setZone(zoneSpeed, grid, key, uniform);
+            commandBuffer.putComponent(chunk.getReferenceTo(entityIndex), LocalSpeedComponent.getComponentType(), added);
+        }
+    }
+}